@@ -0,0 +1,101 @@
+package org.checkerframework.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.lang.model.element.AnnotationMirror;
+import org.checkerframework.checker.nullness.NullnessChecker;
+import org.checkerframework.framework.util.AnnotationMirrorSet;
+import org.checkerframework.javacutil.AnnotationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the operations on sets of annotations that type factories perform for every annotated
+ * type: building a set, membership tests, and comparing two sets.
+ */
+@State(Scope.Benchmark)
+public class AnnotationSetBenchmark {
+
+    /** The qualifiers of the Nullness Checker. */
+    private List<AnnotationMirror> qualifiers;
+
+    /** A set that contains all of {@link #qualifiers}. */
+    private Set<AnnotationMirror> set;
+
+    /** A set that contains the same annotations as {@link #set}, in reverse order. */
+    private Set<AnnotationMirror> sameSet;
+
+    /**
+     * Type-checks an empty class to obtain the Nullness Checker's qualifiers.
+     *
+     * @throws IOException if the class cannot be written to a temporary file
+     */
+    @Setup
+    public void setup() throws IOException {
+        CheckedSource source =
+                CheckedSource.check(new NullnessChecker(), "Empty", "class Empty {}");
+        qualifiers =
+                new ArrayList<>(
+                        source.checker
+                                .getTypeFactory()
+                                .getQualifierHierarchy()
+                                .getTypeQualifiers());
+        set = AnnotationUtils.createAnnotationSet();
+        set.addAll(qualifiers);
+        sameSet = AnnotationUtils.createAnnotationSet();
+        for (int i = qualifiers.size() - 1; i >= 0; i--) {
+            sameSet.add(qualifiers.get(i));
+        }
+    }
+
+    /**
+     * Builds a sorted annotation set.
+     *
+     * @return the set
+     */
+    @Benchmark
+    public Set<AnnotationMirror> createAnnotationSet() {
+        Set<AnnotationMirror> result = AnnotationUtils.createAnnotationSet();
+        result.addAll(qualifiers);
+        return result;
+    }
+
+    /**
+     * Builds an {@link AnnotationMirrorSet}.
+     *
+     * @return the set
+     */
+    @Benchmark
+    public Set<AnnotationMirror> createAnnotationMirrorSet() {
+        Set<AnnotationMirror> result = new AnnotationMirrorSet();
+        result.addAll(qualifiers);
+        return result;
+    }
+
+    /**
+     * Tests whether the set contains each qualifier.
+     *
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void containsSame(Blackhole blackhole) {
+        for (AnnotationMirror qualifier : qualifiers) {
+            blackhole.consume(AnnotationUtils.containsSame(set, qualifier));
+        }
+    }
+
+    /**
+     * Compares two sets that contain the same annotations.
+     *
+     * @return true
+     */
+    @Benchmark
+    public boolean areSame() {
+        return AnnotationUtils.areSame(set, sameSet);
+    }
+}
@@ -0,0 +1,132 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.JavacTask;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.javacutil.BugInCF;
+import org.checkerframework.javacutil.PluginUtil;
+import org.checkerframework.javacutil.TreeUtils;
+
+/**
+ * A checker that has type-checked one compilation unit through the Java Compiler API. The compiler
+ * is never closed, so the checker's type factory, and the trees and elements of the compilation
+ * unit, remain usable by micro-benchmarks.
+ */
+final class CheckedSource {
+
+    /** The checker that type-checked the compilation unit. */
+    final BaseTypeChecker checker;
+
+    /** The compilation unit. */
+    final CompilationUnitTree root;
+
+    /**
+     * Creates a CheckedSource.
+     *
+     * @param checker the checker that type-checked the compilation unit
+     * @param root the compilation unit
+     */
+    private CheckedSource(BaseTypeChecker checker, CompilationUnitTree root) {
+        this.checker = checker;
+        this.root = root;
+    }
+
+    /**
+     * Type-checks a single class with the given checker.
+     *
+     * @param checker a new checker
+     * @param className the simple name of the class
+     * @param source the source code of the class
+     * @return the checked source
+     * @throws IOException if the source cannot be written to a temporary file
+     */
+    static CheckedSource check(BaseTypeChecker checker, String className, String source)
+            throws IOException {
+        Path dir = Files.createTempDirectory("checker-framework-benchmark");
+        File file = dir.resolve(className + ".java").toFile();
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        JavacTask task =
+                (JavacTask)
+                        compiler.getTask(
+                                null,
+                                fileManager,
+                                diagnostic -> {},
+                                javacOptions(),
+                                null,
+                                fileManager.getJavaFileObjects(file));
+        task.setProcessors(Collections.singleton(checker));
+        CompilationUnitTree root = task.parse().iterator().next();
+        task.analyze();
+        return new CheckedSource(checker, root);
+    }
+
+    /**
+     * Returns the javac options used by all benchmarks: the classpath of this JVM, which contains
+     * the checkers and their qualifiers, and on Java 8 the annotated JDK.
+     *
+     * @return the javac options used by all benchmarks
+     */
+    static List<String> javacOptions() {
+        List<String> options = new ArrayList<>();
+        options.add("-classpath");
+        options.add(System.getProperty("java.class.path"));
+        if (PluginUtil.getJreVersion() == 8) {
+            String jdkJarPath = System.getProperty("JDK_JAR");
+            if (jdkJarPath != null && !jdkJarPath.isEmpty()) {
+                options.add("-Xbootclasspath/p:" + jdkJarPath);
+            }
+            options.add("-source");
+            options.add("8");
+            options.add("-target");
+            options.add("8");
+        }
+        return options;
+    }
+
+    /**
+     * Returns the first top-level class of the compilation unit.
+     *
+     * @return the first top-level class of the compilation unit
+     */
+    ClassTree getClassTree() {
+        for (Tree tree : root.getTypeDecls()) {
+            if (TreeUtils.isClassTree(tree)) {
+                return (ClassTree) tree;
+            }
+        }
+        throw new BugInCF("No class in " + root.getSourceFile().getName());
+    }
+
+    /**
+     * Returns the method with the given name in the first top-level class.
+     *
+     * @param name the name of the method
+     * @return the method with the given name
+     */
+    MethodTree getMethod(String name) {
+        for (Tree member : getClassTree().getMembers()) {
+            if (member.getKind() == Tree.Kind.METHOD
+                    && ((MethodTree) member).getName().contentEquals(name)) {
+                return (MethodTree) member;
+            }
+        }
+        throw new BugInCF("No method " + name + " in " + root.getSourceFile().getName());
+    }
+}
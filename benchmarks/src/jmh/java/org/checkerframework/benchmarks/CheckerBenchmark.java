@@ -0,0 +1,97 @@
+package org.checkerframework.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.checkerframework.framework.test.scaling.CorpusGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs a checker over a corpus of {@link CorpusGenerator.Shape#CLASS_CHAIN} classes in-process
+ * through the Java Compiler API. The reported time, and the allocation reported by the {@code gc}
+ * profiler, are per class of the corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CheckerBenchmark {
+
+    /** The number of classes in the corpus. */
+    private static final int CLASSES = 50;
+
+    /** The fully-qualified name of the checker to run. */
+    @Param({
+        "org.checkerframework.checker.nullness.NullnessChecker",
+        "org.checkerframework.checker.index.IndexChecker",
+        "org.checkerframework.checker.interning.InterningChecker",
+        "org.checkerframework.checker.lock.LockChecker"
+    })
+    public String checker;
+
+    /** The Java compiler. */
+    private JavaCompiler compiler;
+
+    /** The file manager, which is reused by every invocation. */
+    private StandardJavaFileManager fileManager;
+
+    /** The .java files of the corpus. */
+    private List<File> corpus;
+
+    /** The javac options, including the checker to run. */
+    private List<String> options;
+
+    /**
+     * Writes the corpus.
+     *
+     * @throws IOException if the corpus cannot be written
+     */
+    @Setup
+    public void setup() throws IOException {
+        compiler = ToolProvider.getSystemJavaCompiler();
+        fileManager = compiler.getStandardFileManager(null, null, null);
+        corpus =
+                new CorpusGenerator(CorpusGenerator.Shape.CLASS_CHAIN, CLASSES)
+                        .write(Files.createTempDirectory("checker-framework-corpus").toFile());
+        options = CheckedSource.javacOptions();
+        options.add("-proc:only");
+        options.add("-processor");
+        options.add(checker);
+    }
+
+    /**
+     * Type-checks the corpus.
+     *
+     * @return true if the corpus type-checks without errors
+     */
+    @Benchmark
+    @OperationsPerInvocation(CLASSES)
+    public boolean typecheck() {
+        return compiler.getTask(
+                        null,
+                        fileManager,
+                        diagnostic -> {},
+                        options,
+                        null,
+                        fileManager.getJavaFileObjectsFromFiles(corpus))
+                .call();
+    }
+}
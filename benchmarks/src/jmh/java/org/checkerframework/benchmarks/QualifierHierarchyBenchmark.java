@@ -0,0 +1,94 @@
+package org.checkerframework.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.lang.model.element.AnnotationMirror;
+import org.checkerframework.checker.nullness.NullnessChecker;
+import org.checkerframework.framework.type.QualifierHierarchy;
+import org.checkerframework.javacutil.AnnotationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures subtyping, least upper bound, and greatest lower bound of qualifiers in the Nullness
+ * Checker's qualifier hierarchy, which also contains the initialization qualifiers. Each operation
+ * is applied to every pair of qualifiers in the same hierarchy.
+ */
+@State(Scope.Benchmark)
+public class QualifierHierarchyBenchmark {
+
+    /** The qualifier hierarchy of the Nullness Checker. */
+    private QualifierHierarchy hierarchy;
+
+    /** The left-hand qualifier of each pair. */
+    private AnnotationMirror[] lefts;
+
+    /** The right-hand qualifier of each pair. */
+    private AnnotationMirror[] rights;
+
+    /**
+     * Type-checks an empty class to obtain the qualifier hierarchy, and computes all pairs of
+     * qualifiers in the same hierarchy.
+     *
+     * @throws IOException if the class cannot be written to a temporary file
+     */
+    @Setup
+    public void setup() throws IOException {
+        CheckedSource source =
+                CheckedSource.check(new NullnessChecker(), "Empty", "class Empty {}");
+        hierarchy = source.checker.getTypeFactory().getQualifierHierarchy();
+        List<AnnotationMirror> leftList = new ArrayList<>();
+        List<AnnotationMirror> rightList = new ArrayList<>();
+        for (AnnotationMirror left : hierarchy.getTypeQualifiers()) {
+            for (AnnotationMirror right : hierarchy.getTypeQualifiers()) {
+                if (AnnotationUtils.areSame(
+                        hierarchy.getTopAnnotation(left), hierarchy.getTopAnnotation(right))) {
+                    leftList.add(left);
+                    rightList.add(right);
+                }
+            }
+        }
+        lefts = leftList.toArray(new AnnotationMirror[0]);
+        rights = rightList.toArray(new AnnotationMirror[0]);
+    }
+
+    /**
+     * Tests subtyping of every pair.
+     *
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void isSubtype(Blackhole blackhole) {
+        for (int i = 0; i < lefts.length; i++) {
+            blackhole.consume(hierarchy.isSubtype(lefts[i], rights[i]));
+        }
+    }
+
+    /**
+     * Computes the least upper bound of every pair.
+     *
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void leastUpperBound(Blackhole blackhole) {
+        for (int i = 0; i < lefts.length; i++) {
+            blackhole.consume(hierarchy.leastUpperBound(lefts[i], rights[i]));
+        }
+    }
+
+    /**
+     * Computes the greatest lower bound of every pair.
+     *
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void greatestLowerBound(Blackhole blackhole) {
+        for (int i = 0; i < lefts.length; i++) {
+            blackhole.consume(hierarchy.greatestLowerBound(lefts[i], rights[i]));
+        }
+    }
+}
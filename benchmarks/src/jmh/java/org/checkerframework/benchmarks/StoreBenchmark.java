@@ -0,0 +1,105 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.VariableTree;
+import java.io.IOException;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.util.Elements;
+import org.checkerframework.checker.nullness.NullnessAnnotatedTypeFactory;
+import org.checkerframework.checker.nullness.NullnessChecker;
+import org.checkerframework.checker.nullness.NullnessStore;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.dataflow.analysis.FlowExpressions;
+import org.checkerframework.javacutil.AnnotationBuilder;
+import org.checkerframework.javacutil.TreeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures copying, least upper bound, and equality of Nullness Checker stores that contain facts
+ * about a number of local variables. Dataflow analysis performs these operations at every block
+ * boundary.
+ */
+@State(Scope.Benchmark)
+public class StoreBenchmark {
+
+    /** The number of local variables with a fact in each store. */
+    @Param({"8", "64"})
+    public int variables;
+
+    /** A store in which every variable is non-null. */
+    private NullnessStore store;
+
+    /** A store in which every other variable is nullable. */
+    private NullnessStore otherStore;
+
+    /** A store equal to {@link #store}. */
+    private NullnessStore sameStore;
+
+    /**
+     * Type-checks a method with {@link #variables} parameters, and fills the stores with facts
+     * about the parameters.
+     *
+     * @throws IOException if the class cannot be written to a temporary file
+     */
+    @Setup
+    public void setup() throws IOException {
+        StringBuilder source = new StringBuilder("class Store {\n    void m(");
+        for (int i = 0; i < variables; i++) {
+            source.append(i == 0 ? "" : ", ").append("Object p").append(i);
+        }
+        source.append(") {}\n}\n");
+        CheckedSource checked =
+                CheckedSource.check(new NullnessChecker(), "Store", source.toString());
+        NullnessAnnotatedTypeFactory factory =
+                (NullnessAnnotatedTypeFactory) checked.checker.getTypeFactory();
+        Elements elements = checked.checker.getProcessingEnvironment().getElementUtils();
+        AnnotationMirror nonNull = AnnotationBuilder.fromClass(elements, NonNull.class);
+        AnnotationMirror nullable = AnnotationBuilder.fromClass(elements, Nullable.class);
+
+        store = factory.getEmptyStore().copy();
+        otherStore = factory.getEmptyStore().copy();
+        int i = 0;
+        for (VariableTree parameter : checked.getMethod("m").getParameters()) {
+            FlowExpressions.Receiver receiver =
+                    new FlowExpressions.LocalVariable(TreeUtils.elementFromDeclaration(parameter));
+            store.insertValue(receiver, nonNull);
+            otherStore.insertValue(receiver, i % 2 == 0 ? nonNull : nullable);
+            i++;
+        }
+        sameStore = store.copy();
+    }
+
+    /**
+     * Copies a store.
+     *
+     * @return the copy
+     */
+    @Benchmark
+    public NullnessStore copy() {
+        return store.copy();
+    }
+
+    /**
+     * Computes the least upper bound of two different stores.
+     *
+     * @return the least upper bound
+     */
+    @Benchmark
+    public NullnessStore leastUpperBound() {
+        return store.leastUpperBound(otherStore);
+    }
+
+    /**
+     * Compares two equal stores.
+     *
+     * @return true
+     */
+    @Benchmark
+    public boolean equality() {
+        return store.equals(sameStore);
+    }
+}
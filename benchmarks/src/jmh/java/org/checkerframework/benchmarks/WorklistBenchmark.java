@@ -0,0 +1,91 @@
+package org.checkerframework.benchmarks;
+
+import java.io.IOException;
+import java.util.Collections;
+import org.checkerframework.checker.nullness.NullnessAnalysis;
+import org.checkerframework.checker.nullness.NullnessAnnotatedTypeFactory;
+import org.checkerframework.checker.nullness.NullnessChecker;
+import org.checkerframework.checker.nullness.NullnessStore;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.UnderlyingAST;
+import org.checkerframework.framework.flow.CFCFGBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the worklist loop of the Nullness Checker's dataflow analysis on the control flow graph
+ * of a method with nested loops and conditionals.
+ */
+@State(Scope.Benchmark)
+public class WorklistBenchmark {
+
+    /** The number of loops in the method. */
+    @Param({"4", "32"})
+    public int loops;
+
+    /** The analysis, which is reused by every invocation. */
+    private NullnessAnalysis analysis;
+
+    /** The control flow graph of the method. */
+    private ControlFlowGraph cfg;
+
+    /**
+     * Type-checks a method with {@link #loops} loops and builds its control flow graph.
+     *
+     * @throws IOException if the class cannot be written to a temporary file
+     */
+    @Setup
+    public void setup() throws IOException {
+        StringBuilder source = new StringBuilder();
+        source.append("import org.checkerframework.checker.nullness.qual.Nullable;\n");
+        source.append("class Worklist {\n");
+        source.append("    @Nullable Object f;\n");
+        source.append("    int m(@Nullable Object a, @Nullable Object b, int n) {\n");
+        source.append("        int sum = 0;\n");
+        for (int i = 0; i < loops; i++) {
+            source.append("        for (int i").append(i).append(" = 0; i");
+            source.append(i).append(" < n; i").append(i).append("++) {\n");
+            source.append("            if (a != null && a.hashCode() > i")
+                    .append(i)
+                    .append(") {\n");
+            source.append("                b = a;\n");
+            source.append("            } else if (f != null) {\n");
+            source.append("                sum += f.hashCode();\n");
+            source.append("                a = null;\n");
+            source.append("            }\n");
+            source.append("            while (b != null && sum < n) {\n");
+            source.append("                sum += b.toString().length();\n");
+            source.append("            }\n");
+            source.append("        }\n");
+        }
+        source.append("        return sum;\n");
+        source.append("    }\n");
+        source.append("}\n");
+        CheckedSource checked =
+                CheckedSource.check(new NullnessChecker(), "Worklist", source.toString());
+        NullnessAnnotatedTypeFactory factory =
+                (NullnessAnnotatedTypeFactory) checked.checker.getTypeFactory();
+        cfg =
+                CFCFGBuilder.build(
+                        checked.root,
+                        new UnderlyingAST.CFGMethod(checked.getMethod("m"), checked.getClassTree()),
+                        checked.checker,
+                        factory,
+                        checked.checker.getProcessingEnvironment());
+        analysis = new NullnessAnalysis(checked.checker, factory, Collections.emptyList());
+    }
+
+    /**
+     * Runs the dataflow analysis of the method to a fixpoint.
+     *
+     * @return the store at the regular exit of the method
+     */
+    @Benchmark
+    public NullnessStore performAnalysis() {
+        analysis.performAnalysis(cfg);
+        return analysis.getRegularExitStore();
+    }
+}
@@ -1,6 +1,7 @@
 package org.checkerframework.checker.formatter;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.IllegalFormatConversionException;
 import java.util.IllegalFormatException;
@@ -10,9 +11,22 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.checkerframework.checker.formatter.qual.ConversionCategory;
 import org.checkerframework.checker.formatter.qual.ReturnsFormat;
+import org.checkerframework.javacutil.CollectionUtils;
 
 /** This class provides a collection of utilities to ease working with format strings. */
 public class FormatUtil {
+
+    /** The maximal number of format strings in {@link #categoriesCache}. */
+    private static final int CATEGORIES_CACHE_SIZE = 10000;
+
+    /**
+     * The conversion categories of the valid format strings that have been parsed most recently, so
+     * that a format string that occurs many times is validated and parsed only once. Invalid format
+     * strings are not cached, because an exception is thrown for them.
+     */
+    private static final Map<String, ConversionCategory[]> categoriesCache =
+            Collections.synchronizedMap(CollectionUtils.createLRUCache(CATEGORIES_CACHE_SIZE));
+
     private static class Conversion {
         private final int index;
         private final ConversionCategory cath;
@@ -67,6 +81,10 @@ public class FormatUtil {
      */
     public static ConversionCategory[] formatParameterCategories(String format)
             throws IllegalFormatException {
+        ConversionCategory[] cached = categoriesCache.get(format);
+        if (cached != null) {
+            return cached.clone();
+        }
         tryFormatSatisfiability(format);
 
         int last = -1; // index of last argument referenced
@@ -101,6 +119,7 @@ public class FormatUtil {
         for (int i = 0; i <= maxindex; ++i) {
             res[i] = conv.containsKey(i) ? conv.get(i) : ConversionCategory.UNUSED;
         }
+        categoriesCache.put(format, res.clone());
         return res;
     }
 
@@ -108,7 +127,7 @@ public class FormatUtil {
     private static final String formatSpecifier =
             "%(\\d+\\$)?([-#+ 0,(\\<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])";
 
-    private static Pattern fsPattern = Pattern.compile(formatSpecifier);
+    private static final Pattern fsPattern = Pattern.compile(formatSpecifier);
 
     private static int indexFromFormat(Matcher m) {
         int index;
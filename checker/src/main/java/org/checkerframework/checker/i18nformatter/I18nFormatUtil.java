@@ -6,6 +6,7 @@ import java.text.DecimalFormatSymbols;
 import java.text.MessageFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.IllegalFormatException;
 import java.util.List;
@@ -14,6 +15,7 @@ import java.util.Map;
 import org.checkerframework.checker.i18nformatter.qual.I18nChecksFormat;
 import org.checkerframework.checker.i18nformatter.qual.I18nConversionCategory;
 import org.checkerframework.checker.i18nformatter.qual.I18nValidFormat;
+import org.checkerframework.javacutil.CollectionUtils;
 
 /**
  * This class provides a collection of utilities to ease working with i18n format strings.
@@ -22,6 +24,17 @@ import org.checkerframework.checker.i18nformatter.qual.I18nValidFormat;
  */
 public class I18nFormatUtil {
 
+    /** The maximal number of format strings in {@link #categoriesCache}. */
+    private static final int CATEGORIES_CACHE_SIZE = 10000;
+
+    /**
+     * The conversion categories of the valid format strings that have been parsed most recently, so
+     * that a format string that occurs many times is validated and parsed only once. Invalid format
+     * strings are not cached, because an exception is thrown for them.
+     */
+    private static final Map<String, I18nConversionCategory[]> categoriesCache =
+            Collections.synchronizedMap(CollectionUtils.createLRUCache(CATEGORIES_CACHE_SIZE));
+
     /**
      * Throws an exception if the format is not syntactically valid.
      *
@@ -39,6 +52,10 @@ public class I18nFormatUtil {
      */
     public static I18nConversionCategory[] formatParameterCategories(String format)
             throws IllegalFormatException {
+        I18nConversionCategory[] cached = categoriesCache.get(format);
+        if (cached != null) {
+            return cached.clone();
+        }
         tryFormatSatisfiability(format);
         I18nConversion[] cs = MessageFormatParser.parse(format);
 
@@ -61,6 +78,7 @@ public class I18nFormatUtil {
         for (int i = 0; i <= maxIndex; i++) {
             res[i] = conv.containsKey(i) ? conv.get(i) : I18nConversionCategory.UNUSED;
         }
+        categoriesCache.put(format, res.clone());
         return res;
     }
 
@@ -113,24 +131,28 @@ public class I18nFormatUtil {
         }
     }
 
+    /**
+     * Parses a single format string. A new parser is used for every format string, so that format
+     * strings can be parsed concurrently.
+     */
     private static class MessageFormatParser {
 
-        public static int maxOffset;
+        public int maxOffset;
 
         /** The locale to use for formatting numbers and dates. */
-        private static Locale locale;
+        private final Locale locale = Locale.getDefault(Locale.Category.FORMAT);
 
         /** An array of formatters, which are used to format the arguments. */
-        private static List<I18nConversionCategory> categories;
+        private final List<I18nConversionCategory> categories = new ArrayList<>();
 
         /**
          * The argument numbers corresponding to each formatter. (The formatters are stored in the
          * order they occur in the pattern, not in the order in which the arguments are specified.)
          */
-        private static List<Integer> argumentIndices;
+        private final List<Integer> argumentIndices = new ArrayList<>();
 
         /** The number of subformats. */
-        private static int numFormat;
+        private int numFormat;
 
         // Indices for segments
         private static final int SEG_RAW = 0;
@@ -162,26 +184,25 @@ public class I18nFormatUtil {
         };
 
         public static I18nConversion[] parse(String pattern) {
-            MessageFormatParser.categories = new ArrayList<>();
-            MessageFormatParser.argumentIndices = new ArrayList<>();
-            MessageFormatParser.locale = Locale.getDefault(Locale.Category.FORMAT);
-            applyPattern(pattern);
-
-            I18nConversion[] ret = new I18nConversion[MessageFormatParser.numFormat];
-            for (int i = 0; i < MessageFormatParser.numFormat; i++) {
-                ret[i] = new I18nConversion(argumentIndices.get(i), categories.get(i));
+            MessageFormatParser parser = new MessageFormatParser();
+            parser.applyPattern(pattern);
+
+            I18nConversion[] ret = new I18nConversion[parser.numFormat];
+            for (int i = 0; i < parser.numFormat; i++) {
+                ret[i] =
+                        new I18nConversion(parser.argumentIndices.get(i), parser.categories.get(i));
             }
             return ret;
         }
 
-        private static void applyPattern(String pattern) {
+        private void applyPattern(String pattern) {
             StringBuilder[] segments = new StringBuilder[4];
             // Allocate only segments[SEG_RAW] here. The rest are
             // allocated on demand.
             segments[SEG_RAW] = new StringBuilder();
 
             int part = SEG_RAW;
-            MessageFormatParser.numFormat = 0;
+            numFormat = 0;
             boolean inQuote = false;
             int braceStack = 0;
             maxOffset = -1;
@@ -262,7 +283,7 @@ public class I18nFormatUtil {
         }
 
         /** Side-effects {@code categories} field, adding to it an I18nConversionCategory. */
-        private static void makeFormat(int offsetNumber, StringBuilder[] textSegments) {
+        private void makeFormat(int offsetNumber, StringBuilder[] textSegments) {
             String[] segments = new String[textSegments.length];
             for (int i = 0; i < textSegments.length; i++) {
                 StringBuilder oneseg = textSegments[i];
@@ -0,0 +1,127 @@
+package org.checkerframework.checker.initialization;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+
+/**
+ * Assigns a number to every field, so that a set of fields can be represented as a {@link BitSet}.
+ * {@link InitializationStore} uses this representation for its initialized fields, which makes
+ * copying, joining, and comparing stores proportional to the number of words of the bit sets rather
+ * than to the number of fields.
+ *
+ * <p>The first time a field is numbered, all fields of its class are numbered, in the order in
+ * which they are declared. The fields of a class therefore have consecutive numbers, starting at
+ * {@link #indexClass(TypeElement)}.
+ */
+class FieldIndex {
+
+    /** The number of each field that has been numbered. */
+    private final Map<VariableElement, Integer> indices = new HashMap<>();
+
+    /** The number of the first field of each class whose fields have been numbered. */
+    private final Map<TypeElement, Integer> classes = new HashMap<>();
+
+    /** The fields that have been numbered, indexed by their number. */
+    private final List<VariableElement> fields = new ArrayList<>();
+
+    /**
+     * Returns the number of the given field, numbering it and the other fields of its class if that
+     * has not been done yet.
+     *
+     * @param field a field
+     * @return the number of {@code field}
+     */
+    int indexOf(VariableElement field) {
+        Integer index = indices.get(field);
+        if (index != null) {
+            return index;
+        }
+        Element enclosing = field.getEnclosingElement();
+        if (enclosing instanceof TypeElement) {
+            indexClass((TypeElement) enclosing);
+            index = indices.get(field);
+            if (index != null) {
+                return index;
+            }
+        }
+        // The field is not a member of its class, which should not happen.
+        return add(field);
+    }
+
+    /**
+     * Returns the number of the given field, or -1 if it has not been numbered. A field that has
+     * not been numbered is not contained in any set of fields.
+     *
+     * @param field an element
+     * @return the number of {@code field}, or -1
+     */
+    int indexIfPresent(Element field) {
+        Integer index = indices.get(field);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Numbers the fields of the given class, if that has not been done yet.
+     *
+     * @param type a class
+     * @return the number of the first field of {@code type}
+     */
+    int indexClass(TypeElement type) {
+        Integer first = classes.get(type);
+        if (first != null) {
+            return first;
+        }
+        first = fields.size();
+        classes.put(type, first);
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (!indices.containsKey(field)) {
+                add(field);
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Returns the field with the given number.
+     *
+     * @param index the number of a field
+     * @return the field with number {@code index}
+     */
+    VariableElement get(int index) {
+        return fields.get(index);
+    }
+
+    /**
+     * Returns the fields in the given set.
+     *
+     * @param set a set of fields
+     * @return the fields in {@code set}, in the order of their numbers
+     */
+    List<VariableElement> toList(BitSet set) {
+        List<VariableElement> result = new ArrayList<>(set.cardinality());
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            result.add(fields.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Numbers a field that has not been numbered yet.
+     *
+     * @param field a field
+     * @return the number of {@code field}
+     */
+    private int add(VariableElement field) {
+        int index = fields.size();
+        fields.add(field);
+        indices.put(field, index);
+        return index;
+    }
+}
@@ -1,6 +1,7 @@
 package org.checkerframework.checker.initialization;
 
 import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.LiteralTree;
 import com.sun.source.tree.MethodTree;
@@ -13,10 +14,13 @@ import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.tree.JCTree;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
@@ -35,6 +39,7 @@ import org.checkerframework.checker.initialization.qual.UnderInitialization;
 import org.checkerframework.checker.initialization.qual.UnknownInitialization;
 import org.checkerframework.checker.nullness.NullnessAnnotatedTypeFactory;
 import org.checkerframework.checker.nullness.NullnessChecker;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.common.basetype.BaseTypeChecker;
 import org.checkerframework.framework.flow.CFAbstractAnalysis;
 import org.checkerframework.framework.flow.CFAbstractValue;
@@ -87,6 +92,15 @@ public abstract class InitializationAnnotatedTypeFactory<
     /** Cache for the initialization annotations. */
     protected final Set<Class<? extends Annotation>> initAnnos;
 
+    /** The numbers of the fields in the initialized-field sets of all stores. */
+    private final FieldIndex fieldIndex = new FieldIndex();
+
+    /**
+     * The fields of the classes in the current compilation unit that have the invariant annotation,
+     * as sets of numbers in {@link #fieldIndex}. See {@link #getInvariantFields}.
+     */
+    private final Map<ClassTree, InvariantFields> invariantFieldsCache = new HashMap<>();
+
     /**
      * Create a new InitializationAnnotatedTypeFactory.
      *
@@ -114,6 +128,22 @@ public abstract class InitializationAnnotatedTypeFactory<
         // Its subclasses must call postInit().
     }
 
+    /**
+     * Returns the numbers of the fields in the initialized-field sets of the stores of this type
+     * factory.
+     *
+     * @return the numbers of the fields in the initialized-field sets of the stores
+     */
+    FieldIndex getFieldIndex() {
+        return fieldIndex;
+    }
+
+    @Override
+    public void setRoot(@Nullable CompilationUnitTree root) {
+        super.setRoot(root);
+        invariantFieldsCache.clear();
+    }
+
     public Set<Class<? extends Annotation>> getInitializationAnnotations() {
         return initAnnos;
     }
@@ -501,22 +531,19 @@ public abstract class InitializationAnnotatedTypeFactory<
             boolean isStatic,
             List<? extends AnnotationMirror> receiverAnnotations) {
         ClassTree currentClass = TreeUtils.enclosingClass(path);
-        List<VariableTree> fields = InitializationChecker.getAllFields(currentClass);
-        List<VariableTree> violatingFields = new ArrayList<>();
-        for (VariableTree field : fields) {
+        InvariantFields invariantFields = getInvariantFields(currentClass);
+        BitSet uninitialized =
+                (BitSet)
+                        (isStatic ? invariantFields.staticFields : invariantFields.instanceFields)
+                                .clone();
+        uninitialized.andNot(store.initializedFields);
+        List<VariableTree> violatingFields = new ArrayList<>(uninitialized.cardinality());
+        for (int i = uninitialized.nextSetBit(0); i >= 0; i = uninitialized.nextSetBit(i + 1)) {
+            VariableTree field = invariantFields.trees.get(i);
             if (isUnused(field, receiverAnnotations)) {
                 continue; // don't consider unused fields
             }
-            VariableElement fieldElem = TreeUtils.elementFromDeclaration(field);
-            if (ElementUtils.isStatic(fieldElem) == isStatic) {
-                // Does this field need to satisfy the invariant?
-                if (hasFieldInvariantAnnotation(field)) {
-                    // Has the field been initialized?
-                    if (!store.isFieldInitialized(fieldElem)) {
-                        violatingFields.add(field);
-                    }
-                }
-            }
+            violatingFields.add(field);
         }
         return violatingFields;
     }
@@ -529,21 +556,54 @@ public abstract class InitializationAnnotatedTypeFactory<
         // TODO: Instead of passing the TreePath around, can we use
         // getCurrentClassTree?
         ClassTree currentClass = TreeUtils.enclosingClass(path);
-        List<VariableTree> fields = InitializationChecker.getAllFields(currentClass);
-        List<VariableTree> initializedFields = new ArrayList<>();
-        for (VariableTree field : fields) {
-            VariableElement fieldElem = TreeUtils.elementFromDeclaration(field);
-            if (!ElementUtils.isStatic(fieldElem)) {
-                // Does this field need to satisfy the invariant?
-                if (hasFieldInvariantAnnotation(field)) {
-                    // Has the field been initialized?
-                    if (store.isFieldInitialized(fieldElem)) {
-                        initializedFields.add(field);
-                    }
+        InvariantFields invariantFields = getInvariantFields(currentClass);
+        BitSet initialized = (BitSet) invariantFields.instanceFields.clone();
+        initialized.and(store.initializedFields);
+        List<VariableTree> initializedFields = new ArrayList<>(initialized.cardinality());
+        for (int i = initialized.nextSetBit(0); i >= 0; i = initialized.nextSetBit(i + 1)) {
+            initializedFields.add(invariantFields.trees.get(i));
+        }
+        return initializedFields;
+    }
+
+    /** The fields of a class that have the invariant annotation. */
+    private static class InvariantFields {
+        /** The static fields, as numbers in the field index. */
+        final BitSet staticFields = new BitSet();
+        /** The non-static fields, as numbers in the field index. */
+        final BitSet instanceFields = new BitSet();
+        /** The declarations of the fields, keyed by their numbers. */
+        final Map<Integer, VariableTree> trees = new HashMap<>();
+    }
+
+    /**
+     * Returns the fields of the given class that have the invariant annotation. They are computed
+     * once per class, rather than every time a store is checked.
+     *
+     * @param classTree a class
+     * @return the fields of {@code classTree} that have the invariant annotation
+     */
+    private InvariantFields getInvariantFields(ClassTree classTree) {
+        InvariantFields result = invariantFieldsCache.get(classTree);
+        if (result != null) {
+            return result;
+        }
+        result = new InvariantFields();
+        for (VariableTree field : InitializationChecker.getAllFields(classTree)) {
+            // Does this field need to satisfy the invariant?
+            if (hasFieldInvariantAnnotation(field)) {
+                VariableElement fieldElem = TreeUtils.elementFromDeclaration(field);
+                int index = fieldIndex.indexOf(fieldElem);
+                if (ElementUtils.isStatic(fieldElem)) {
+                    result.staticFields.set(index);
+                } else {
+                    result.instanceFields.set(index);
                 }
+                result.trees.put(index, field);
             }
         }
-        return initializedFields;
+        invariantFieldsCache.put(classTree, result);
+        return result;
     }
 
     /** Returns whether the field {@code f} is unused, given the annotations on the receiver. */
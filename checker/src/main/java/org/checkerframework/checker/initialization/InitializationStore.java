@@ -1,7 +1,7 @@
 package org.checkerframework.checker.initialization;
 
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -31,14 +31,22 @@ import org.checkerframework.javacutil.AnnotationUtils;
 public class InitializationStore<V extends CFAbstractValue<V>, S extends InitializationStore<V, S>>
         extends CFAbstractStore<V, S> {
 
-    /** The set of fields that are initialized. */
-    protected final Set<VariableElement> initializedFields;
+    /**
+     * The numbers of all fields, shared by all stores of a type factory. See {@link
+     * #initializedFields}.
+     */
+    private final FieldIndex fieldIndex;
+    /** The set of fields that are initialized, as their numbers in {@link #fieldIndex}. */
+    protected final BitSet initializedFields;
     /** The set of fields that have 'invariant' annotation. */
     protected final Map<FieldAccess, V> invariantFields;
 
     public InitializationStore(CFAbstractAnalysis<V, S, ?> analysis, boolean sequentialSemantics) {
         super(analysis, sequentialSemantics);
-        initializedFields = new HashSet<>();
+        fieldIndex =
+                ((InitializationAnnotatedTypeFactory<?, ?, ?, ?>) analysis.getTypeFactory())
+                        .getFieldIndex();
+        initializedFields = new BitSet();
         invariantFields = new HashMap<>();
     }
 
@@ -115,7 +123,8 @@ public class InitializationStore<V extends CFAbstractValue<V>, S extends Initial
     /** A copy constructor. */
     public InitializationStore(S other) {
         super(other);
-        initializedFields = new HashSet<>(other.initializedFields);
+        fieldIndex = ((InitializationStore<V, S>) other).fieldIndex;
+        initializedFields = (BitSet) other.initializedFields.clone();
         invariantFields = new HashMap<>(other.invariantFields);
     }
 
@@ -128,7 +137,7 @@ public class InitializationStore<V extends CFAbstractValue<V>, S extends Initial
         boolean fieldOnThisReference = field.getReceiver() instanceof ThisReference;
         boolean staticField = field.isStatic();
         if (fieldOnThisReference || staticField) {
-            initializedFields.add(field.getField());
+            addInitializedField(field.getField());
         }
     }
 
@@ -137,12 +146,13 @@ public class InitializationStore<V extends CFAbstractValue<V>, S extends Initial
      * that the field belongs to the current class, or is a static field).
      */
     public void addInitializedField(VariableElement f) {
-        initializedFields.add(f);
+        initializedFields.set(fieldIndex.indexOf(f));
     }
 
     /** Is the field identified by the element {@code f} initialized? */
     public boolean isFieldInitialized(Element f) {
-        return initializedFields.contains(f);
+        int index = fieldIndex.indexIfPresent(f);
+        return index != -1 && initializedFields.get(index);
     }
 
     @Override
@@ -152,8 +162,11 @@ public class InitializationStore<V extends CFAbstractValue<V>, S extends Initial
         }
         @SuppressWarnings("unchecked")
         S other = (S) o;
-        for (Element field : other.initializedFields) {
-            if (!initializedFields.contains(field)) {
+        BitSet otherInitializedFields = other.initializedFields;
+        for (int i = otherInitializedFields.nextSetBit(0);
+                i >= 0;
+                i = otherInitializedFields.nextSetBit(i + 1)) {
+            if (!initializedFields.get(i)) {
                 return false;
             }
         }
@@ -206,8 +219,8 @@ public class InitializationStore<V extends CFAbstractValue<V>, S extends Initial
         other.fieldValues.putAll(removedOtherFieldValues);
 
         // Set intersection for initializedFields.
-        result.initializedFields.addAll(other.initializedFields);
-        result.initializedFields.retainAll(initializedFields);
+        result.initializedFields.or(other.initializedFields);
+        result.initializedFields.and(initializedFields);
 
         // Set intersection for invariantFields.
         for (Entry<FieldAccess, V> e : invariantFields.entrySet()) {
@@ -224,7 +237,8 @@ public class InitializationStore<V extends CFAbstractValue<V>, S extends Initial
     @Override
     protected String internalVisualize(CFGVisualizer<V, S, ?> viz) {
         return super.internalVisualize(viz)
-                + viz.visualizeStoreKeyVal("initialized fields", initializedFields)
+                + viz.visualizeStoreKeyVal(
+                        "initialized fields", fieldIndex.toList(initializedFields))
                 + viz.visualizeStoreKeyVal("invariant fields", invariantFields);
     }
 
@@ -28,6 +28,7 @@ import org.checkerframework.framework.type.treeannotator.ListTreeAnnotator;
 import org.checkerframework.framework.type.treeannotator.LiteralTreeAnnotator;
 import org.checkerframework.framework.type.treeannotator.PropagationTreeAnnotator;
 import org.checkerframework.framework.type.treeannotator.TreeAnnotator;
+import org.checkerframework.framework.util.AnnotationMirrorMap;
 import org.checkerframework.framework.util.GraphQualifierHierarchy;
 import org.checkerframework.framework.util.MultiGraphQualifierHierarchy.MultiGraphFactory;
 import org.checkerframework.javacutil.AnnotationBuilder;
@@ -68,6 +69,24 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
     private static final Map<String, AnnotationMirror> aliasMap = new HashMap<>();
 
+    /**
+     * The unit of the product of two units, as determined by the {@link UnitsRelations}, keyed by
+     * the units of the left and right operands. A null value means that no relation applies.
+     */
+    private final AnnotationMirrorMap<AnnotationMirrorMap<AnnotationMirror>> productTable =
+            new AnnotationMirrorMap<>();
+
+    /**
+     * The unit of the quotient of two units, as determined by the {@link UnitsRelations}, keyed by
+     * the units of the left and right operands. A null value means that no relation applies.
+     */
+    private final AnnotationMirrorMap<AnnotationMirrorMap<AnnotationMirror>> quotientTable =
+            new AnnotationMirrorMap<>();
+
+    /** Map from a units annotation to the same annotation without a prefix. */
+    private final AnnotationMirrorMap<AnnotationMirror> unprefixedUnits =
+            new AnnotationMirrorMap<>();
+
     public UnitsAnnotatedTypeFactory(BaseTypeChecker checker) {
         // use true to enable flow inference, false to disable it
         super(checker, false);
@@ -332,6 +351,9 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
                     } catch (Throwable e) {
                         throw new BugInCF("Throwable when instantiating UnitsRelations", e);
                     }
+                    // The new relations might resolve operations that others did not.
+                    productTable.clear();
+                    quotientTable.clear();
                 }
             }
         }
@@ -388,21 +410,45 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             }
 
             AnnotationMirror bestres = null;
-            for (UnitsRelations ur : getUnitsRel().values()) {
-                AnnotationMirror res = useUnitsRelation(kind, ur, lht, rht);
-
-                if (bestres != null && res != null && !bestres.equals(res)) {
-                    checker.message(
-                            Kind.WARNING,
-                            "UnitsRelation mismatch, taking neither! Previous: "
-                                    + bestres
-                                    + " and current: "
-                                    + res);
-                    return null; // super.visitBinary(node, type);
+            if (kind == Tree.Kind.MULTIPLY || kind == Tree.Kind.DIVIDE) {
+                // Look up the result of the units relations, which depends only on the units of
+                // the operands.
+                AnnotationMirror lhsUnit = lht.getAnnotationInHierarchy(TOP);
+                AnnotationMirror rhsUnit = rht.getAnnotationInHierarchy(TOP);
+                AnnotationMirrorMap<AnnotationMirror> row = null;
+                if (lhsUnit != null && rhsUnit != null) {
+                    AnnotationMirrorMap<AnnotationMirrorMap<AnnotationMirror>> table =
+                            kind == Tree.Kind.MULTIPLY ? productTable : quotientTable;
+                    row = table.get(lhsUnit);
+                    if (row == null) {
+                        row = new AnnotationMirrorMap<>();
+                        table.put(lhsUnit, row);
+                    }
                 }
 
-                if (res != null) {
-                    bestres = res;
+                if (row != null && row.containsKey(rhsUnit)) {
+                    bestres = row.get(rhsUnit);
+                } else {
+                    for (UnitsRelations ur : getUnitsRel().values()) {
+                        AnnotationMirror res = useUnitsRelation(kind, ur, lht, rht);
+
+                        if (bestres != null && res != null && !bestres.equals(res)) {
+                            checker.message(
+                                    Kind.WARNING,
+                                    "UnitsRelation mismatch, taking neither! Previous: "
+                                            + bestres
+                                            + " and current: "
+                                            + res);
+                            return null; // super.visitBinary(node, type);
+                        }
+
+                        if (res != null) {
+                            bestres = res;
+                        }
+                    }
+                    if (row != null) {
+                        row.put(rhsUnit, bestres);
+                    }
                 }
             }
 
@@ -586,6 +632,14 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
     }
 
     private AnnotationMirror removePrefix(AnnotationMirror anno) {
-        return UnitsRelationsTools.removePrefix(elements, anno);
+        if (UnitsRelationsTools.hasNoPrefix(anno)) {
+            return anno;
+        }
+        AnnotationMirror result = unprefixedUnits.get(anno);
+        if (result == null) {
+            result = UnitsRelationsTools.removePrefix(elements, anno);
+            unprefixedUnits.put(anno, result);
+        }
+        return result;
     }
 }
@@ -5,7 +5,12 @@ import javax.lang.model.element.AnnotationMirror;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 
-/** Interface that is used to specify the relation between units. */
+/**
+ * Interface that is used to specify the relation between units.
+ *
+ * <p>The Units Checker caches the results of {@link #multiplication} and {@link #division} for each
+ * pair of operand units, so they must depend only on the units annotations of their arguments.
+ */
 public interface UnitsRelations {
     /**
      * Initialize the object. Needs to be called before any other method.
@@ -0,0 +1,33 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.checker.nullness.NullnessChecker;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * JUnit tests for the Nullness checker when the flow results of each method are computed just
+ * before the method is type-checked and released afterward.
+ */
+public class NullnessStreamFlowResultsTest extends CheckerFrameworkPerDirectoryTest {
+
+    /** @param testFiles the files containing test code, which will be type-checked */
+    public NullnessStreamFlowResultsTest(List<File> testFiles) {
+        super(
+                testFiles,
+                org.checkerframework.checker.nullness.NullnessChecker.class,
+                "nullness",
+                "-AstreamFlowResults",
+                "-AcheckPurityAnnotations",
+                "-Anomsgtext",
+                "-Xlint:deprecation",
+                "-Alint=forbidnonnullarraycomponents,"
+                        + NullnessChecker.LINT_REDUNDANTNULLCOMPARISON);
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"nullness-streamflowresults", "initialization/fbc", "nullness/java8"};
+    }
+}
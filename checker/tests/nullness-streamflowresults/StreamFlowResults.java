@@ -0,0 +1,99 @@
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+// Test case for the -AstreamFlowResults option: the flow results of each method, and of the
+// lambdas and classes declared in it, are computed when the method is type-checked and released
+// afterward.
+class StreamFlowResults {
+
+    @Nullable Object nble;
+    Object nn;
+    Object init = "";
+
+    StreamFlowResults() {
+        nn = init;
+    }
+
+    // :: error: (initialization.fields.uninitialized)
+    StreamFlowResults(int i) {}
+
+    StreamFlowResults(boolean b) {
+        if (b) {
+            nn = "yes";
+        } else {
+            nn = "no";
+        }
+    }
+
+    void refineParameter(@Nullable Object o) {
+        if (o != null) {
+            o.toString();
+        }
+        // :: error: (dereference.of.nullable)
+        o.toString();
+    }
+
+    void refineField() {
+        if (nble != null) {
+            nble.toString();
+        }
+        // :: error: (dereference.of.nullable)
+        nble.toString();
+    }
+
+    void lambdas() {
+        Function<@Nullable String, Integer> f =
+                s -> {
+                    if (s == null) {
+                        return 0;
+                    }
+                    return s.length();
+                };
+        Function<@Nullable String, Integer> g =
+                // :: error: (dereference.of.nullable)
+                s -> s.length();
+    }
+
+    Object anonymousClass() {
+        return new Object() {
+            @Nullable Object f;
+
+            @Override
+            public String toString() {
+                if (f != null) {
+                    return f.toString();
+                }
+                // :: error: (dereference.of.nullable)
+                return f.toString();
+            }
+        };
+    }
+
+    int localClass() {
+        class Local {
+            Object g;
+
+            Local() {
+                g = "";
+            }
+
+            // :: error: (initialization.fields.uninitialized)
+            Local(int i) {}
+
+            int length(@Nullable String s) {
+                if (s != null) {
+                    return s.length();
+                }
+                return 0;
+            }
+        }
+        return new Local().length(null);
+    }
+
+    String afterClasses(@Nullable String s) {
+        if (s == null) {
+            s = "";
+        }
+        return s;
+    }
+}
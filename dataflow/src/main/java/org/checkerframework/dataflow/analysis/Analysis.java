@@ -100,6 +100,23 @@ public class Analysis<
     /** Map from (effectively final) local variable elements to their abstract value. */
     public final HashMap<Element, A> finalLocalValues;
 
+    /** The default value of {@link #checkpointInterval}. */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 16;
+
+    /**
+     * The number of nodes of a regular block between two checkpoints; 0 if no checkpoints are
+     * stored. See {@link #checkpoints}.
+     */
+    protected int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+
+    /**
+     * Checkpoints within long regular blocks: for every {@link #checkpointInterval}-th node of a
+     * regular block, the transfer input before the node. {@link AnalysisResult#runAnalysisFor}
+     * starts from the closest checkpoint before a node instead of from the start of its block, so
+     * that it runs at most {@link #checkpointInterval} transfer functions.
+     */
+    protected final IdentityHashMap<Node, Checkpoint<A, S>> checkpoints;
+
     /**
      * The node that is currently handled in the analysis (if it is running). The following
      * invariant holds:
@@ -160,6 +177,51 @@ public class Analysis<
         this.worklist = new Worklist();
         this.nodeValues = new IdentityHashMap<>();
         this.finalLocalValues = new HashMap<>();
+        this.checkpoints = new IdentityHashMap<>();
+    }
+
+    /**
+     * Sets the number of nodes of a regular block between two checkpoints, which determines the
+     * maximal number of transfer functions that {@link AnalysisResult#runAnalysisFor} runs to
+     * compute the store at a node. Smaller intervals make queries faster and use more memory.
+     *
+     * @param checkpointInterval the number of nodes between two checkpoints, or 0 to store no
+     *     checkpoints
+     */
+    public void setCheckpointInterval(int checkpointInterval) {
+        if (checkpointInterval < 0) {
+            throw new IllegalArgumentException(
+                    "checkpoint interval must not be negative: " + checkpointInterval);
+        }
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * The transfer input before a node of a regular block, computed during the analysis.
+     *
+     * @param <A> type of the abstract value that is tracked
+     * @param <S> type of the store
+     */
+    protected static class Checkpoint<A extends AbstractValue<A>, S extends Store<S>> {
+        /**
+         * The input of the block from which {@link #input} was computed. The checkpoint is only
+         * valid as long as this is the input of the block.
+         */
+        final TransferInput<A, S> blockInput;
+
+        /** The transfer input before the node. */
+        final TransferInput<A, S> input;
+
+        /**
+         * Creates a checkpoint.
+         *
+         * @param blockInput the input of the block from which {@code input} was computed
+         * @param input the transfer input before the node
+         */
+        Checkpoint(TransferInput<A, S> blockInput, TransferInput<A, S> input) {
+            this.blockInput = blockInput;
+            this.input = input;
+        }
     }
 
     public T getTransferFunction() {
@@ -206,7 +268,15 @@ public class Analysis<
                     TransferResult<A, S> transferResult = null;
                     Node lastNode = null;
                     boolean addToWorklistAgain = false;
+                    int index = 0;
                     for (Node n : rb.getContents()) {
+                        if (checkpointInterval > 0
+                                && index > 0
+                                && index % checkpointInterval == 0) {
+                            // Copy the input, because the transfer function may modify it.
+                            checkpoints.put(n, new Checkpoint<>(inputBefore, currentInput.copy()));
+                        }
+                        index++;
                         transferResult = callTransferFunction(n, currentInput);
                         addToWorklistAgain |= updateNodeValues(n, transferResult);
                         currentInput = new TransferInput<>(n, this, transferResult);
@@ -438,6 +508,7 @@ public class Analysis<
         storesAtReturnStatements.clear();
         nodeValues.clear();
         finalLocalValues.clear();
+        checkpoints.clear();
 
         this.cfg = cfg;
         worklist.process(cfg);
@@ -792,7 +863,8 @@ public class Analysis<
                 inputs,
                 cfg.getTreeLookup(),
                 cfg.getUnaryAssignNodeLookup(),
-                finalLocalValues);
+                finalLocalValues,
+                checkpoints);
     }
 
     /**
@@ -4,6 +4,7 @@ import com.sun.source.tree.Tree;
 import com.sun.source.tree.UnaryTree;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -14,6 +15,7 @@ import org.checkerframework.dataflow.cfg.block.ExceptionBlock;
 import org.checkerframework.dataflow.cfg.block.RegularBlock;
 import org.checkerframework.dataflow.cfg.node.AssignmentNode;
 import org.checkerframework.dataflow.cfg.node.Node;
+import org.checkerframework.dataflow.util.IdentityMostlySingleton;
 
 /**
  * An {@link AnalysisResult} represents the result of a org.checkerframework.dataflow analysis by
@@ -47,6 +49,13 @@ public class AnalysisResult<A extends AbstractValue<A>, S extends Store<S>> {
     protected final Map<TransferInput<A, S>, IdentityHashMap<Node, TransferResult<A, S>>>
             analysisCaches;
 
+    /**
+     * The transfer inputs before some nodes of long regular blocks.
+     *
+     * @see Analysis#checkpoints
+     */
+    protected final IdentityHashMap<Node, Analysis.Checkpoint<A, S>> checkpoints;
+
     /** Initialize with given mappings. */
     protected AnalysisResult(
             Map<Node, A> nodeValues,
@@ -54,6 +63,7 @@ public class AnalysisResult<A extends AbstractValue<A>, S extends Store<S>> {
             IdentityHashMap<Tree, Set<Node>> treeLookup,
             IdentityHashMap<UnaryTree, AssignmentNode> unaryAssignNodeLookup,
             HashMap<Element, A> finalLocalValues,
+            Map<Node, Analysis.Checkpoint<A, S>> checkpoints,
             Map<TransferInput<A, S>, IdentityHashMap<Node, TransferResult<A, S>>> analysisCaches) {
         this.nodeValues = new IdentityHashMap<>(nodeValues);
         this.treeLookup = new IdentityHashMap<>(treeLookup);
@@ -61,6 +71,7 @@ public class AnalysisResult<A extends AbstractValue<A>, S extends Store<S>> {
         // TODO: why are stores and finalLocalValues captured?
         this.stores = stores;
         this.finalLocalValues = finalLocalValues;
+        this.checkpoints = new IdentityHashMap<>(checkpoints);
         this.analysisCaches = analysisCaches;
     }
 
@@ -80,6 +91,24 @@ public class AnalysisResult<A extends AbstractValue<A>, S extends Store<S>> {
                 new IdentityHashMap<>());
     }
 
+    /** Initialize with given mappings, checkpoints, and empty cache. */
+    /*package-private*/ AnalysisResult(
+            Map<Node, A> nodeValues,
+            IdentityHashMap<Block, TransferInput<A, S>> stores,
+            IdentityHashMap<Tree, Set<Node>> treeLookup,
+            IdentityHashMap<UnaryTree, AssignmentNode> unaryAssignNodeLookup,
+            HashMap<Element, A> finalLocalValues,
+            Map<Node, Analysis.Checkpoint<A, S>> checkpoints) {
+        this(
+                nodeValues,
+                stores,
+                treeLookup,
+                unaryAssignNodeLookup,
+                finalLocalValues,
+                checkpoints,
+                new IdentityHashMap<>());
+    }
+
     /** Initialize empty result with specified cache. */
     public AnalysisResult(
             Map<TransferInput<A, S>, IdentityHashMap<Node, TransferResult<A, S>>> analysisCaches) {
@@ -89,6 +118,7 @@ public class AnalysisResult<A extends AbstractValue<A>, S extends Store<S>> {
                 new IdentityHashMap<>(),
                 new IdentityHashMap<>(),
                 new HashMap<>(),
+                new IdentityHashMap<>(),
                 analysisCaches);
     }
 
@@ -99,9 +129,28 @@ public class AnalysisResult<A extends AbstractValue<A>, S extends Store<S>> {
         unaryAssignNodeLookup.putAll(other.unaryAssignNodeLookup);
         stores.putAll(other.stores);
         finalLocalValues.putAll(other.finalLocalValues);
+        checkpoints.putAll(other.checkpoints);
+    }
+
+    /**
+     * Removes the information of another analysis result that was added to this result by {@link
+     * #combine}, to release the memory it uses. The two analysis results must not have been created
+     * from the same control flow graph.
+     *
+     * @param other an analysis result that was combined into this result
+     */
+    public void remove(AnalysisResult<A, S> other) {
+        nodeValues.keySet().removeAll(other.nodeValues.keySet());
+        removeTreeLookup(treeLookup, other.treeLookup);
+        unaryAssignNodeLookup.keySet().removeAll(other.unaryAssignNodeLookup.keySet());
+        stores.keySet().removeAll(other.stores.keySet());
+        finalLocalValues.keySet().removeAll(other.finalLocalValues.keySet());
+        checkpoints.keySet().removeAll(other.checkpoints.keySet());
     }
 
     // Merge all entries from otherTreeLookup into treeLookup. Merge sets if already present.
+    // Sets are never modified, but replaced by their union, so that removeTreeLookup can undo
+    // the merge.
     private static void mergeTreeLookup(
             IdentityHashMap<Tree, Set<Node>> treeLookup,
             IdentityHashMap<Tree, Set<Node>> otherTreeLookup) {
@@ -110,7 +159,37 @@ public class AnalysisResult<A extends AbstractValue<A>, S extends Store<S>> {
             if (hit == null) {
                 treeLookup.put(entry.getKey(), entry.getValue());
             } else {
-                hit.addAll(entry.getValue());
+                Set<Node> merged = new IdentityMostlySingleton<>();
+                merged.addAll(hit);
+                merged.addAll(entry.getValue());
+                treeLookup.put(entry.getKey(), merged);
+            }
+        }
+    }
+
+    // Remove the nodes of all entries of otherTreeLookup from treeLookup.
+    private static void removeTreeLookup(
+            IdentityHashMap<Tree, Set<Node>> treeLookup,
+            IdentityHashMap<Tree, Set<Node>> otherTreeLookup) {
+        for (Entry<Tree, Set<Node>> entry : otherTreeLookup.entrySet()) {
+            Set<Node> hit = treeLookup.get(entry.getKey());
+            if (hit == null) {
+                continue;
+            }
+            if (hit == entry.getValue()) {
+                treeLookup.remove(entry.getKey());
+                continue;
+            }
+            Set<Node> remaining = new IdentityMostlySingleton<>();
+            for (Node n : hit) {
+                if (!entry.getValue().contains(n)) {
+                    remaining.add(n);
+                }
+            }
+            if (remaining.isEmpty()) {
+                treeLookup.remove(entry.getKey());
+            } else {
+                treeLookup.put(entry.getKey(), remaining);
             }
         }
     }
@@ -239,7 +318,7 @@ public class AnalysisResult<A extends AbstractValue<A>, S extends Store<S>> {
         if (transferInput == null) {
             return null;
         }
-        return runAnalysisFor(node, before, transferInput, nodeValues, analysisCaches);
+        return runAnalysisFor(node, before, transferInput, nodeValues, analysisCaches, checkpoints);
     }
 
     /**
@@ -258,6 +337,30 @@ public class AnalysisResult<A extends AbstractValue<A>, S extends Store<S>> {
             TransferInput<A, S> transferInput,
             IdentityHashMap<Node, A> nodeValues,
             Map<TransferInput<A, S>, IdentityHashMap<Node, TransferResult<A, S>>> analysisCaches) {
+        return runAnalysisFor(node, before, transferInput, nodeValues, analysisCaches, null);
+    }
+
+    /**
+     * Like {@link #runAnalysisFor(Node, boolean, TransferInput, IdentityHashMap, Map)}, but in a
+     * regular block, starts from the closest checkpoint before {@code node} that was computed from
+     * {@code transferInput}, if any.
+     *
+     * @param node the node whose store is returned
+     * @param before whether to return the store before {@code node}, or after it
+     * @param transferInput the input of the block of {@code node}
+     * @param nodeValues the abstract values of nodes
+     * @param analysisCaches caches of the analysis results, or null
+     * @param checkpoints the transfer inputs before some nodes of long regular blocks, or null
+     * @return the store before or after {@code node}
+     * @see Analysis#checkpoints
+     */
+    /*package-private*/ static <A extends AbstractValue<A>, S extends Store<S>> S runAnalysisFor(
+            Node node,
+            boolean before,
+            TransferInput<A, S> transferInput,
+            IdentityHashMap<Node, A> nodeValues,
+            Map<TransferInput<A, S>, IdentityHashMap<Node, TransferResult<A, S>>> analysisCaches,
+            @Nullable IdentityHashMap<Node, Analysis.Checkpoint<A, S>> checkpoints) {
         assert node != null;
         Block block = node.getBlock();
         assert transferInput != null;
@@ -287,11 +390,28 @@ public class AnalysisResult<A extends AbstractValue<A>, S extends Store<S>> {
                     {
                         RegularBlock rb = (RegularBlock) block;
 
+                        // Find the closest checkpoint before the node, if any.
+                        List<Node> contents = rb.getContents();
+                        int start = 0;
+                        TransferInput<A, S> store = transferInput;
+                        if (checkpoints != null && !checkpoints.isEmpty()) {
+                            for (int i = 0; i < contents.size(); i++) {
+                                Node n = contents.get(i);
+                                Analysis.Checkpoint<A, S> checkpoint = checkpoints.get(n);
+                                if (checkpoint != null && checkpoint.blockInput == transferInput) {
+                                    start = i;
+                                    store = checkpoint.input;
+                                }
+                                if (n == node) {
+                                    break;
+                                }
+                            }
+                        }
+
                         // Apply transfer function to contents until we found the node we are
                         // looking for.
-                        TransferInput<A, S> store = transferInput;
                         TransferResult<A, S> transferResult = null;
-                        for (Node n : rb.getContents()) {
+                        for (Node n : contents.subList(start, contents.size())) {
                             analysis.currentNode = n;
                             if (n == node && before) {
                                 return store.getRegularStore();
@@ -0,0 +1,44 @@
+package org.checkerframework.framework.test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.runners.model.RunnerScheduler;
+
+/**
+ * Runs the children of a {@link PerDirectorySuite} or {@link PerFileSuite} concurrently on a fixed
+ * pool of threads. Each child still compiles and checks its own test files and matches its own
+ * expected diagnostics; only their order of execution changes.
+ *
+ * @see TestUtilities#getTestThreads()
+ */
+class ParallelRunnerScheduler implements RunnerScheduler {
+
+    /** The threads that run the children. */
+    private final ExecutorService executor;
+
+    /**
+     * Creates a scheduler that uses the given number of threads.
+     *
+     * @param threads the number of threads
+     */
+    ParallelRunnerScheduler(int threads) {
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @Override
+    public void schedule(Runnable childStatement) {
+        executor.submit(childStatement);
+    }
+
+    @Override
+    public void finished() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for tests to finish", e);
+        }
+    }
+}
@@ -59,6 +59,11 @@ public class PerFileSuite extends Suite {
         for (Object[] parameters : parametersList) {
             runners.add(new PerParameterSetTestRunner(javaTestClass, parameters));
         }
+
+        int threads = TestUtilities.getTestThreads();
+        if (threads > 1) {
+            setScheduler(new ParallelRunnerScheduler(threads));
+        }
     }
 
     /** Returns a list of one-element arrays, each containing a Java File. */
@@ -436,4 +436,37 @@ public class TestUtilities {
     public static boolean getShouldEmitDebugInfo() {
         return PluginUtil.getBooleanSystemProperty("emit.test.debug");
     }
+
+    /**
+     * Returns true if each test thread should reuse one compiler file manager for all the tests it
+     * runs, rather than creating a new one per test. Set by the {@code test.reuse.filemanager}
+     * system property.
+     *
+     * @return true if tests should reuse compiler file managers
+     */
+    public static boolean getShouldReuseFileManager() {
+        return PluginUtil.getBooleanSystemProperty("test.reuse.filemanager");
+    }
+
+    /**
+     * Returns the number of threads on which a {@link PerDirectorySuite} or {@link PerFileSuite}
+     * runs its test directories or test files. Set by the {@code test.threads} system property; the
+     * default is 1, which runs them sequentially.
+     *
+     * <p>Only use more than one thread for checkers that can safely run in several compilations at
+     * the same time in one JVM.
+     *
+     * @return the number of threads on which to run the tests of a suite
+     */
+    public static int getTestThreads() {
+        String value = System.getProperty("test.threads");
+        if (value == null || value.isEmpty()) {
+            return 1;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            throw new Error("Value for system property test.threads is not an integer: " + value);
+        }
+    }
 }
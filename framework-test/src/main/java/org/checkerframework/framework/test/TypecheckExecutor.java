@@ -1,6 +1,7 @@
 package org.checkerframework.framework.test;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
@@ -8,6 +9,7 @@ import javax.tools.DiagnosticCollector;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
 import javax.tools.ToolProvider;
 import org.checkerframework.framework.test.diagnostics.JavaDiagnosticReader;
 import org.checkerframework.framework.test.diagnostics.TestDiagnostic;
@@ -16,6 +18,17 @@ import org.checkerframework.javacutil.PluginUtil;
 /** Used by the Checker Framework test suite to run the framework and generate a test result. */
 public class TypecheckExecutor {
 
+    /**
+     * The file manager of each test thread, if {@link TestUtilities#getShouldReuseFileManager} is
+     * true. Reusing a file manager avoids re-reading the classpath and platform classes for every
+     * test. File managers are not thread-safe, so each thread has its own.
+     */
+    private static final ThreadLocal<StandardJavaFileManager> reusedFileManager =
+            ThreadLocal.withInitial(
+                    () ->
+                            ToolProvider.getSystemJavaCompiler()
+                                    .getStandardFileManager(null, null, null));
+
     public TypecheckExecutor() {}
 
     /** Runs a typechecking test using the given configuration and returns the test result. */
@@ -35,7 +48,13 @@ public class TypecheckExecutor {
         DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
 
         JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        StandardJavaFileManager fileManager;
+        if (TestUtilities.getShouldReuseFileManager()) {
+            fileManager = reusedFileManager.get();
+            resetLocations(fileManager);
+        } else {
+            fileManager = compiler.getStandardFileManager(null, null, null);
+        }
         Iterable<? extends JavaFileObject> javaFiles =
                 fileManager.getJavaFileObjects(
                         configuration.getTestSourceFiles().toArray(new File[] {}));
@@ -104,6 +123,28 @@ public class TypecheckExecutor {
                 diagnostics.getDiagnostics());
     }
 
+    /**
+     * Restores the default search paths of a reused file manager, so that paths set by the options
+     * of a previous test do not leak into the next one. The options of each test set them again.
+     *
+     * @param fileManager the file manager to reset
+     */
+    private static void resetLocations(StandardJavaFileManager fileManager) {
+        StandardLocation[] locations = {
+            StandardLocation.CLASS_PATH,
+            StandardLocation.SOURCE_PATH,
+            StandardLocation.ANNOTATION_PROCESSOR_PATH,
+            StandardLocation.PLATFORM_CLASS_PATH
+        };
+        for (StandardLocation location : locations) {
+            try {
+                fileManager.setLocation(location, null);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not reset " + location, e);
+            }
+        }
+    }
+
     /**
      * Reads the expected diagnostics for the given configuration and creates a TypecheckResult
      * which contains all of the missing and expected diagnostics
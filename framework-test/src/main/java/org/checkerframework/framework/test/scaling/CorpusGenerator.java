@@ -0,0 +1,451 @@
+package org.checkerframework.framework.test.scaling;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates Java source files whose size along one dimension is given by a parameter. Each {@link
+ * Shape} stresses a different part of the framework, so that running a checker on increasing sizes
+ * of one shape reveals how that part scales. The output depends only on the shape and the size.
+ *
+ * @see ScalingRunner
+ */
+public class CorpusGenerator {
+
+    /** The kinds of generated input. */
+    public enum Shape {
+        /** One method with {@code size} statements, which stresses CFG construction. */
+        LONG_METHOD,
+        /**
+         * Loops and try/catch statements nested {@code size} deep, which stresses the worklist of
+         * the dataflow analysis and exceptional control flow.
+         */
+        NESTED_CONTROL,
+        /** {@code size} subclasses of one generic class, which stresses override checking. */
+        WIDE_HIERARCHY,
+        /**
+         * Generic types and generic method calls nested {@code size} deep, which stresses type
+         * argument inference and wildcard handling.
+         */
+        GENERICS,
+        /**
+         * A method with {@code size} facts each about {@code @KeyFor}, {@code @GuardedBy}, and
+         * {@code @LTLengthOf} expressions, which stresses stores and flow expression parsing.
+         */
+        FLOW_FACTS,
+        /** A switch statement with {@code size} cases. */
+        SWITCH,
+        /**
+         * {@code size} classes that exercise nullness refinement, array indexing, interned
+         * comparisons, and locking, each of which calls the previous one, so that every checker has
+         * cross-class work to do.
+         */
+        CLASS_CHAIN
+    }
+
+    /** The shape to generate. */
+    private final Shape shape;
+
+    /** The size of the generated input. */
+    private final int size;
+
+    /**
+     * Creates a generator.
+     *
+     * @param shape the shape to generate
+     * @param size the size of the generated input; must be positive
+     */
+    public CorpusGenerator(Shape shape, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        this.shape = shape;
+        this.size = size;
+    }
+
+    /**
+     * Writes the generated source files into the given directory.
+     *
+     * @param dir the directory, which must exist
+     * @return the generated .java files
+     * @throws IOException if a file cannot be written
+     */
+    public List<File> write(File dir) throws IOException {
+        List<File> files = new ArrayList<>();
+        switch (shape) {
+            case LONG_METHOD:
+                files.add(write(dir, "LongMethod", longMethod()));
+                break;
+            case NESTED_CONTROL:
+                files.add(write(dir, "NestedControl", nestedControl()));
+                break;
+            case WIDE_HIERARCHY:
+                files.add(write(dir, "Base", hierarchyBase()));
+                for (int i = 0; i < size; i++) {
+                    files.add(write(dir, "Sub" + i, hierarchySubclass(i)));
+                }
+                files.add(write(dir, "HierarchyClient", hierarchyClient()));
+                break;
+            case GENERICS:
+                files.add(write(dir, "Generics", generics()));
+                break;
+            case FLOW_FACTS:
+                files.add(write(dir, "FlowFacts", flowFacts()));
+                break;
+            case SWITCH:
+                files.add(write(dir, "LargeSwitch", largeSwitch()));
+                break;
+            case CLASS_CHAIN:
+                for (int i = 0; i < size; i++) {
+                    files.add(write(dir, "Chain" + i, chainClass(i)));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+        return files;
+    }
+
+    /**
+     * Writes one source file.
+     *
+     * @param dir the directory
+     * @param className the name of the top-level class in the file
+     * @param source the contents of the file
+     * @return the file
+     * @throws IOException if the file cannot be written
+     */
+    private static File write(File dir, String className, String source) throws IOException {
+        File file = new File(dir, className + ".java");
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Returns a class with one method of {@link #size} statements.
+     *
+     * @return the source code of class LongMethod
+     */
+    private String longMethod() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("import org.checkerframework.checker.nullness.qual.Nullable;\n\n");
+        sb.append("class LongMethod {\n");
+        sb.append("    int m(int[] a, @Nullable String s) {\n");
+        sb.append("        int x0 = a.length;\n");
+        for (int i = 1; i < size; i++) {
+            if (i % 10 == 0) {
+                sb.append(String.format("        if (x%d > a.length) {%n", i - 1));
+                sb.append("            s = null;\n");
+                sb.append("        } else {\n");
+                sb.append(String.format("            s = \"v%d\";%n", i));
+                sb.append("        }\n");
+            }
+            sb.append(
+                    String.format(
+                            "        int x%d = x%d + (s == null ? %d : s.length());%n",
+                            i, i - 1, i));
+        }
+        sb.append(String.format("        return x%d;%n", size - 1));
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Returns a class with one method whose loops and try/catch statements are nested {@link #size}
+     * deep.
+     *
+     * @return the source code of class NestedControl
+     */
+    private String nestedControl() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("import org.checkerframework.checker.nullness.qual.Nullable;\n\n");
+        sb.append("class NestedControl {\n");
+        sb.append("    @Nullable String m(int n, @Nullable String r) {\n");
+        StringBuilder indent = new StringBuilder("        ");
+        for (int i = 0; i < size; i++) {
+            if (i % 2 == 0) {
+                sb.append(indent)
+                        .append(String.format("for (int i%d = 0; i%d < n; i%d++) {%n", i, i, i));
+            } else {
+                sb.append(indent).append("try {\n");
+            }
+            indent.append("    ");
+        }
+        sb.append(indent).append("r = (r == null) ? String.valueOf(n) : null;\n");
+        for (int i = size - 1; i >= 0; i--) {
+            indent.setLength(indent.length() - 4);
+            if (i % 2 == 0) {
+                sb.append(indent).append("}\n");
+            } else {
+                sb.append(indent).append(String.format("} catch (RuntimeException e%d) {%n", i));
+                sb.append(indent).append("    r = e").append(i).append(".getMessage();\n");
+                sb.append(indent).append("}\n");
+            }
+        }
+        sb.append("        return r;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Returns the superclass of the wide hierarchy.
+     *
+     * @return the source code of class Base
+     */
+    private String hierarchyBase() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("import org.checkerframework.checker.nullness.qual.Nullable;\n\n");
+        sb.append("abstract class Base<T extends Comparable<T>> {\n");
+        sb.append("    abstract @Nullable T get();\n\n");
+        sb.append("    abstract void set(T t);\n\n");
+        sb.append("    int compare(Base<T> other) {\n");
+        sb.append("        T mine = get();\n");
+        sb.append("        T theirs = other.get();\n");
+        sb.append("        if (mine == null || theirs == null) {\n");
+        sb.append("            return 0;\n");
+        sb.append("        }\n");
+        sb.append("        return mine.compareTo(theirs);\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Returns one subclass of the wide hierarchy.
+     *
+     * @param i the index of the subclass
+     * @return the source code of class {@code Sub<i>}
+     */
+    private String hierarchySubclass(int i) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("import org.checkerframework.checker.nullness.qual.Nullable;\n\n");
+        sb.append(String.format("class Sub%d extends Base<String> implements Runnable {%n", i));
+        sb.append("    private @Nullable String value;\n\n");
+        sb.append("    @Override\n");
+        sb.append("    @Nullable String get() {\n");
+        sb.append("        return value;\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    void set(String t) {\n");
+        sb.append("        value = t;\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public void run() {\n");
+        sb.append(String.format("        set(\"%d\");%n", i));
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Returns a class that uses every subclass of the wide hierarchy.
+     *
+     * @return the source code of class HierarchyClient
+     */
+    private String hierarchyClient() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("import java.util.ArrayList;\n");
+        sb.append("import java.util.List;\n\n");
+        sb.append("class HierarchyClient {\n");
+        sb.append("    int compareAll() {\n");
+        sb.append("        List<Base<String>> all = new ArrayList<>();\n");
+        for (int i = 0; i < size; i++) {
+            sb.append(String.format("        all.add(new Sub%d());%n", i));
+        }
+        sb.append("        int result = 0;\n");
+        sb.append("        for (Base<String> b : all) {\n");
+        sb.append("            result += b.compare(all.get(0));\n");
+        sb.append("        }\n");
+        sb.append("        return result;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Returns a class whose generic types and generic method calls are nested {@link #size} deep.
+     *
+     * @return the source code of class Generics
+     */
+    private String generics() {
+        StringBuilder type = new StringBuilder("String");
+        StringBuilder call = new StringBuilder("\"x\"");
+        for (int i = 0; i < size; i++) {
+            type.insert(0, i % 2 == 0 ? "List<" : "Map<String, ").append(">");
+            call.insert(0, i % 2 == 0 ? "wrap(" : "map(").append(")");
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("import java.util.Collections;\n");
+        sb.append("import java.util.List;\n");
+        sb.append("import java.util.Map;\n\n");
+        sb.append("class Generics {\n");
+        sb.append("    static <T> List<T> wrap(T t) {\n");
+        sb.append("        return Collections.singletonList(t);\n");
+        sb.append("    }\n\n");
+        sb.append("    static <V> Map<String, V> map(V v) {\n");
+        sb.append("        return Collections.singletonMap(\"k\", v);\n");
+        sb.append("    }\n\n");
+        sb.append("    static <T extends Comparable<? super T>> T max(List<? extends T> l) {\n");
+        sb.append("        return Collections.max(l);\n");
+        sb.append("    }\n\n");
+        sb.append("    static int size(List<? extends Object> l, Map<?, ? super String> m) {\n");
+        sb.append("        return l.size() + m.size();\n");
+        sb.append("    }\n\n");
+        sb.append("    Object nested() {\n");
+        sb.append("        ").append(type).append(" v = ").append(call).append(";\n");
+        sb.append("        return v;\n");
+        sb.append("    }\n\n");
+        sb.append("    int calls(List<String> l, Map<String, String> m) {\n");
+        sb.append("        int result = 0;\n");
+        for (int i = 0; i < size; i++) {
+            sb.append("        result += max(wrap(l.get(0))).length() + size(l, m);\n");
+        }
+        sb.append("        return result;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Returns a class with one method whose store holds {@link #size} facts about each of
+     * {@code @KeyFor}, {@code @GuardedBy}, and {@code @LTLengthOf} expressions.
+     *
+     * @return the source code of class FlowFacts
+     */
+    private String flowFacts() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("import java.util.HashMap;\n");
+        sb.append("import java.util.Map;\n");
+        sb.append("import org.checkerframework.checker.index.qual.LTLengthOf;\n");
+        sb.append("import org.checkerframework.checker.lock.qual.GuardedBy;\n");
+        sb.append("import org.checkerframework.checker.nullness.qual.KeyFor;\n\n");
+        sb.append("class FlowFacts {\n");
+        sb.append("    final Object lock = new Object();\n");
+        sb.append("    final Map<String, Integer> map = new HashMap<>();\n");
+        sb.append("    final int[] arr = new int[10];\n");
+        for (int i = 0; i < size; i++) {
+            sb.append(String.format("    @GuardedBy(\"lock\") int g%d;%n", i));
+        }
+        sb.append("\n    int m(");
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? "" : ", ");
+            sb.append(
+                    String.format(
+                            "@KeyFor(\"map\") String k%d, @LTLengthOf(\"arr\") int j%d", i, i));
+        }
+        sb.append(") {\n");
+        sb.append("        int result = 0;\n");
+        sb.append("        synchronized (lock) {\n");
+        for (int i = 0; i < size; i++) {
+            sb.append(String.format("            g%d = map.get(k%d) + arr[j%d];%n", i, i, i));
+            sb.append(String.format("            result += g%d;%n", i));
+        }
+        sb.append("        }\n");
+        sb.append("        return result;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Returns a class with one switch statement of {@link #size} cases.
+     *
+     * @return the source code of class LargeSwitch
+     */
+    private String largeSwitch() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("import org.checkerframework.checker.nullness.qual.Nullable;\n\n");
+        sb.append("class LargeSwitch {\n");
+        sb.append("    int m(int n, @Nullable String s) {\n");
+        sb.append("        int result = 0;\n");
+        sb.append("        switch (n) {\n");
+        for (int i = 0; i < size; i++) {
+            sb.append(String.format("            case %d:%n", i));
+            if (i % 3 == 0) {
+                sb.append("                s = null;\n");
+                sb.append("                break;\n");
+            } else if (i % 3 == 1) {
+                sb.append(String.format("                s = \"%d\";%n", i));
+                sb.append("                // fall through\n");
+            } else {
+                sb.append(
+                        String.format(
+                                "                result = (s == null) ? %d : s.length();%n", i));
+                sb.append("                break;\n");
+            }
+        }
+        sb.append("            default:\n");
+        sb.append("                result = -1;\n");
+        sb.append("        }\n");
+        sb.append("        return result;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Returns one class of the class chain.
+     *
+     * @param i the index of the class
+     * @return the source code of class {@code Chain<i>}
+     */
+    private String chainClass(int i) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("import java.util.ArrayList;\n");
+        sb.append("import java.util.List;\n");
+        sb.append("import org.checkerframework.checker.interning.qual.Interned;\n");
+        sb.append("import org.checkerframework.checker.lock.qual.GuardedBy;\n");
+        sb.append("import org.checkerframework.checker.nullness.qual.Nullable;\n\n");
+        sb.append(String.format("public class Chain%d {%n", i));
+        sb.append("    private final Object lock = new Object();\n");
+        sb.append("    private @GuardedBy(\"lock\") int count;\n");
+        sb.append("    private @Nullable String label;\n");
+        sb.append("    private final List<String> names = new ArrayList<>();\n\n");
+        sb.append("    public int sum(int[] values) {\n");
+        sb.append("        int sum = 0;\n");
+        sb.append("        for (int j = 0; j < values.length; j++) {\n");
+        sb.append("            sum += values[j];\n");
+        sb.append("        }\n");
+        sb.append("        return sum;\n");
+        sb.append("    }\n\n");
+        sb.append("    public int labelLength() {\n");
+        sb.append("        String l = label;\n");
+        sb.append("        if (l == null) {\n");
+        sb.append("            return 0;\n");
+        sb.append("        }\n");
+        sb.append("        return l.length();\n");
+        sb.append("    }\n\n");
+        sb.append("    public boolean same(@Interned String a, @Interned String b) {\n");
+        sb.append("        return a == b;\n");
+        sb.append("    }\n\n");
+        sb.append("    public void increment() {\n");
+        sb.append("        synchronized (lock) {\n");
+        sb.append("            count++;\n");
+        sb.append("        }\n");
+        sb.append("    }\n\n");
+        sb.append("    public @Nullable String find(String prefix) {\n");
+        sb.append("        for (String n : names) {\n");
+        sb.append("            if (n.startsWith(prefix)) {\n");
+        sb.append("                return n;\n");
+        sb.append("            }\n");
+        sb.append("        }\n");
+        sb.append("        return null;\n");
+        sb.append("    }\n");
+        if (i > 0) {
+            sb.append(String.format("%n    public int delegate(Chain%d other) {%n", i - 1));
+            sb.append("        int[] values = new int[] {other.labelLength(), 1, 2};\n");
+            sb.append("        other.increment();\n");
+            sb.append("        String found = other.find(\"a\");\n");
+            sb.append("        return sum(values) + (found == null ? 0 : found.length());\n");
+            sb.append("    }\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,186 @@
+package org.checkerframework.framework.test.scaling;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.checkerframework.framework.test.scaling.CorpusGenerator.Shape;
+import org.checkerframework.javacutil.PluginUtil;
+
+/**
+ * Runs a checker on inputs of increasing size generated by {@link CorpusGenerator}, and records the
+ * time and memory it uses for each size. Usage:
+ *
+ * <pre>
+ * java org.checkerframework.framework.test.scaling.ScalingRunner checker shape sizes [output]
+ * </pre>
+ *
+ * where {@code checker} is the fully-qualified name of a checker, {@code shape} is the name of a
+ * {@link Shape}, {@code sizes} is a comma-separated list of sizes, and {@code output} is the CSV
+ * file to write (standard output if omitted). The classpath of this JVM must contain the checker
+ * and its qualifiers. On Java 8, the annotated JDK is given by the system property "JDK_JAR", as
+ * for the checker tests.
+ *
+ * <p>Each row of the output has the columns {@code checker}, {@code shape}, {@code size}, {@code
+ * milliseconds}, {@code peakHeapBytes}, and {@code errors}. The peak heap usage is the sum of the
+ * peak usage of every heap memory pool while the checker ran. Before the first size is measured,
+ * the checker is run once on the smallest size to warm up the JVM.
+ */
+public class ScalingRunner {
+
+    /** The fully-qualified name of the checker to run. */
+    private final String checker;
+
+    /** The shape of the generated input. */
+    private final Shape shape;
+
+    /** The compiler. */
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+    /** The file manager, which is reused for every size. */
+    private final StandardJavaFileManager fileManager =
+            compiler.getStandardFileManager(null, null, null);
+
+    /**
+     * Creates a runner.
+     *
+     * @param checker the fully-qualified name of the checker to run
+     * @param shape the shape of the generated input
+     */
+    public ScalingRunner(String checker, Shape shape) {
+        this.checker = checker;
+        this.shape = shape;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || args.length > 4) {
+            System.err.println("Usage: ScalingRunner checker shape sizes [output]");
+            System.exit(1);
+        }
+        ScalingRunner runner = new ScalingRunner(args[0], Shape.valueOf(args[1]));
+        List<Integer> sizes = new ArrayList<>();
+        for (String size : args[2].split(",")) {
+            sizes.add(Integer.parseInt(size.trim()));
+        }
+        try (PrintWriter out =
+                args.length == 4
+                        ? new PrintWriter(new FileWriter(args[3]))
+                        : new PrintWriter(System.out)) {
+            runner.run(sizes, out);
+        }
+    }
+
+    /**
+     * Runs the checker on each size and writes one CSV row per size.
+     *
+     * @param sizes the sizes of the generated inputs
+     * @param out where to write the CSV rows
+     * @throws IOException if an input cannot be generated
+     */
+    public void run(List<Integer> sizes, PrintWriter out) throws IOException {
+        out.println("checker,shape,size,milliseconds,peakHeapBytes,errors");
+        if (!sizes.isEmpty()) {
+            measure(sizes.get(0));
+        }
+        for (int size : sizes) {
+            Measurement m = measure(size);
+            out.println(
+                    String.join(
+                            ",",
+                            checker,
+                            shape.toString(),
+                            Integer.toString(size),
+                            Long.toString(m.milliseconds),
+                            Long.toString(m.peakHeapBytes),
+                            Integer.toString(m.errors)));
+            out.flush();
+        }
+    }
+
+    /** The time and memory of one run of the checker. */
+    private static class Measurement {
+        /** The elapsed time. */
+        long milliseconds;
+        /** The sum of the peak usage of all heap memory pools. */
+        long peakHeapBytes;
+        /** The number of errors the compiler reported. */
+        int errors;
+    }
+
+    /**
+     * Generates an input of the given size and runs the checker on it.
+     *
+     * @param size the size of the input
+     * @return the time and memory used by the checker
+     * @throws IOException if the input cannot be generated
+     */
+    private Measurement measure(int size) throws IOException {
+        File dir = Files.createTempDirectory("checker-framework-scaling").toFile();
+        List<File> files = new CorpusGenerator(shape, size).write(dir);
+
+        List<String> options = new ArrayList<>();
+        options.add("-proc:only");
+        options.add("-processor");
+        options.add(checker);
+        options.add("-classpath");
+        options.add(System.getProperty("java.class.path"));
+        if (PluginUtil.getJreVersion() == 8) {
+            String jdkJarPath = System.getProperty("JDK_JAR");
+            if (jdkJarPath != null && !jdkJarPath.isEmpty()) {
+                options.add("-Xbootclasspath/p:" + jdkJarPath);
+            }
+            options.add("-source");
+            options.add("8");
+        }
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaCompiler.CompilationTask task =
+                compiler.getTask(
+                        null,
+                        fileManager,
+                        diagnostics,
+                        options,
+                        null,
+                        fileManager.getJavaFileObjectsFromFiles(files));
+
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool);
+            }
+        }
+        System.gc();
+        for (MemoryPoolMXBean pool : heapPools) {
+            pool.resetPeakUsage();
+        }
+        long start = System.nanoTime();
+        task.call();
+        Measurement m = new Measurement();
+        m.milliseconds = (System.nanoTime() - start) / 1_000_000;
+        for (MemoryPoolMXBean pool : heapPools) {
+            m.peakHeapBytes += pool.getPeakUsage().getUsed();
+        }
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                m.errors++;
+            }
+        }
+
+        for (File file : files) {
+            file.delete();
+        }
+        dir.delete();
+        return m;
+    }
+}
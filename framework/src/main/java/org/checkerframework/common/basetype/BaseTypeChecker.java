@@ -34,6 +34,8 @@ import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
 import org.checkerframework.framework.type.QualifierHierarchy;
 import org.checkerframework.framework.type.TypeHierarchy;
+import org.checkerframework.framework.util.CheckerStatistics;
+import org.checkerframework.framework.util.OverrideIndex;
 import org.checkerframework.framework.util.TreePathCacher;
 import org.checkerframework.javacutil.AbstractTypeProcessor;
 import org.checkerframework.javacutil.AnnotationProvider;
@@ -131,6 +133,12 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
      */
     private TreePathCacher treePathCacher;
 
+    /**
+     * OverrideIndex to share between instances. Initialized either in instantiateSubcheckers or in
+     * getOverrideIndex.
+     */
+    private OverrideIndex overrideIndex;
+
     @Override
     protected void setRoot(CompilationUnitTree newRoot) {
         super.setRoot(newRoot);
@@ -408,6 +416,7 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
 
             instance.setProcessingEnvironment(this.processingEnv);
             instance.treePathCacher = this.getTreePathCacher();
+            instance.overrideIndex = this.getOverrideIndex();
             // Prevent the new checker from storing non-immediate subcheckers
             instance.subcheckers = Collections.emptyList();
             immediateSubcheckers.add(instance);
@@ -450,6 +459,17 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
         return treePathCacher;
     }
 
+    /** Get the shared OverrideIndex instance. */
+    public OverrideIndex getOverrideIndex() {
+        if (overrideIndex == null) {
+            // In case it wasn't already set in instantiateSubcheckers.
+            overrideIndex =
+                    new OverrideIndex(
+                            processingEnv.getElementUtils(), processingEnv.getTypeUtils());
+        }
+        return overrideIndex;
+    }
+
     /**
      * Sort by position at which the error will be printed, then by the order in which the checkers
      * run, then by kind of message, and finally by the message string.
@@ -669,6 +689,14 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
         super.typeProcessingOver();
     }
 
+    @Override
+    protected void collectStatistics(List<CheckerStatistics> allStatistics) {
+        for (BaseTypeChecker checker : getSubcheckers()) {
+            checker.collectStatistics(allStatistics);
+        }
+        super.collectStatistics(allStatistics);
+    }
+
     @Override
     public Set<String> getSupportedOptions() {
         if (supportedOptions == null) {
@@ -52,6 +52,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
@@ -69,6 +70,7 @@ import javax.lang.model.type.TypeVariable;
 import javax.lang.model.util.ElementFilter;
 import javax.tools.Diagnostic.Kind;
 import org.checkerframework.checker.compilermsgs.qual.CompilerMessageKey;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.dataflow.analysis.FlowExpressions;
 import org.checkerframework.dataflow.analysis.FlowExpressions.Receiver;
 import org.checkerframework.dataflow.analysis.TransferResult;
@@ -298,6 +300,15 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         if (tree != null && getCurrentPath() != null) {
             this.visitorState.setPath(new TreePath(getCurrentPath(), tree));
         }
+        if (tree != null && tree.getKind() == Tree.Kind.METHOD) {
+            MethodTree methodTree = (MethodTree) tree;
+            atypeFactory.preProcessMethodTree(methodTree);
+            try {
+                return super.scan(tree, p);
+            } finally {
+                atypeFactory.postProcessMethodTree(methodTree);
+            }
+        }
         return super.scan(tree, p);
     }
 
@@ -2338,38 +2349,66 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         // Use an error key only if it's overridden by a checker.
         if (!success) {
             FoundRequired pair = FoundRequired.of(valueType, varType);
-            String valueTypeString = pair.found;
-            String varTypeString = pair.required;
-            checker.report(Result.failure(errorKey, valueTypeString, varTypeString), valueTree);
+            checker.report(Result.failure(errorKey, pair.found, pair.required), valueTree);
         }
     }
 
     /**
      * Class that creates string representations of {@link AnnotatedTypeMirror}s which are only
      * verbose if required to differentiate the two types.
+     *
+     * <p>The string representations are computed when the message that contains {@link #found} or
+     * {@link #required} is rendered, so that a suppressed message does not compute them.
      */
     private static class FoundRequired {
-        public final String found;
-        public final String required;
+        /** The found type; its {@code toString} is the string representation. */
+        public final Object found = new Part(0);
+        /** The required type; its {@code toString} is the string representation. */
+        public final Object required = new Part(1);
+
+        /** Computes the string representations of the found and the required type. */
+        private final Supplier<String[]> computeStrings;
+
+        /** The string representations of the found and the required type, once computed. */
+        private String @Nullable [] strings;
 
         private FoundRequired(AnnotatedTypeMirror found, AnnotatedTypeMirror required) {
-            if (shouldPrintVerbose(found, required)) {
-                this.found = found.toString(true);
-                this.required = required.toString(true);
-            } else {
-                this.found = found.toString();
-                this.required = required.toString();
-            }
+            this.computeStrings =
+                    () ->
+                            shouldPrintVerbose(found, required)
+                                    ? new String[] {found.toString(true), required.toString(true)}
+                                    : new String[] {found.toString(), required.toString()};
         }
 
         /** Create a FoundRequired for a type and bounds. */
         private FoundRequired(AnnotatedTypeMirror found, AnnotatedTypeParameterBounds required) {
-            if (shouldPrintVerbose(found, required)) {
-                this.found = found.toString(true);
-                this.required = required.toString(true);
-            } else {
-                this.found = found.toString();
-                this.required = required.toString();
+            this.computeStrings =
+                    () ->
+                            shouldPrintVerbose(found, required)
+                                    ? new String[] {found.toString(true), required.toString(true)}
+                                    : new String[] {found.toString(), required.toString()};
+        }
+
+        /** The found or the required type, as a message argument. */
+        private class Part {
+            /** 0 for the found type, 1 for the required type. */
+            private final int index;
+
+            /**
+             * Creates a Part.
+             *
+             * @param index 0 for the found type, 1 for the required type
+             */
+            Part(int index) {
+                this.index = index;
+            }
+
+            @Override
+            public String toString() {
+                if (strings == null) {
+                    strings = computeStrings.get();
+                }
+                return strings[index];
             }
         }
 
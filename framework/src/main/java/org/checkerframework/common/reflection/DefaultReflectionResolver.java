@@ -29,7 +29,9 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.AnnotationMirror;
@@ -39,6 +41,7 @@ import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.common.basetype.BaseTypeChecker;
 import org.checkerframework.common.reflection.qual.Invoke;
 import org.checkerframework.common.reflection.qual.MethodVal;
@@ -51,6 +54,7 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayTyp
 import org.checkerframework.javacutil.AnnotationProvider;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.BugInCF;
+import org.checkerframework.javacutil.Pair;
 import org.checkerframework.javacutil.TreeUtils;
 
 /**
@@ -73,6 +77,18 @@ public class DefaultReflectionResolver implements ReflectionResolver {
     private final Trees trees;
     private final boolean debug;
 
+    /**
+     * The method and constructor symbols that have been resolved for a reflective signature. The
+     * key consists of the class from whose scope the signature was resolved and a string built by
+     * {@link #signature}. The symbols depend only on this key, not on the call site, so a signature
+     * that recurs at many reflective call sites is resolved only once. The spoofed invocations are
+     * still built and typed at every call site, because their types depend on the arguments.
+     */
+    private final Map<Pair<ClassSymbol, String>, List<Symbol>> resolvedSignatures = new HashMap<>();
+
+    /** The method {@code Resolve.loadClass}, or null if it has not been looked up yet. */
+    private @Nullable Method loadClass;
+
     public DefaultReflectionResolver(
             BaseTypeChecker checker,
             MethodValAnnotatedTypeFactory methodValProvider,
@@ -482,6 +498,24 @@ public class DefaultReflectionResolver implements ReflectionResolver {
      */
     private List<Symbol> getMethodSymbolsfor(
             String className, String methodName, int paramLength, Env<AttrContext> env) {
+        Pair<ClassSymbol, String> key =
+                Pair.of(env.enclClass.sym, signature(className, methodName, paramLength));
+        List<Symbol> result = resolvedSignatures.get(key);
+        if (result == null) {
+            result = resolveMethodSymbolsfor(className, methodName, paramLength, env);
+            resolvedSignatures.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Get set of MethodSymbols based on class name, method name, and parameter length, without
+     * consulting {@link #resolvedSignatures}.
+     *
+     * @return the (potentially empty) set of corresponding method Symbol(s)
+     */
+    private List<Symbol> resolveMethodSymbolsfor(
+            String className, String methodName, int paramLength, Env<AttrContext> env) {
         Context context = ((JavacProcessingEnvironment) processingEnv).getContext();
         Resolve resolve = Resolve.instance(context);
         Names names = Names.instance(context);
@@ -527,6 +561,24 @@ public class DefaultReflectionResolver implements ReflectionResolver {
      */
     private List<Symbol> getConstructorSymbolsfor(
             String className, int paramLength, Env<AttrContext> env) {
+        Pair<ClassSymbol, String> key =
+                Pair.of(env.enclClass.sym, signature(className, "<init>", paramLength));
+        List<Symbol> result = resolvedSignatures.get(key);
+        if (result == null) {
+            result = resolveConstructorSymbolsfor(className, paramLength, env);
+            resolvedSignatures.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Get set of Symbols for constructors based on class name and parameter length, without
+     * consulting {@link #resolvedSignatures}.
+     *
+     * @return the (potentially empty) set of corresponding constructor Symbol(s)
+     */
+    private List<Symbol> resolveConstructorSymbolsfor(
+            String className, int paramLength, Env<AttrContext> env) {
         Context context = ((JavacProcessingEnvironment) processingEnv).getContext();
         Resolve resolve = Resolve.instance(context);
         Names names = Names.instance(context);
@@ -555,16 +607,30 @@ public class DefaultReflectionResolver implements ReflectionResolver {
         return result;
     }
 
+    /**
+     * Returns a string that identifies a reflective signature.
+     *
+     * @param className the name of a class
+     * @param methodName the name of a method, or {@code <init>} for constructors
+     * @param paramLength the number of parameters
+     * @return a string that identifies the signature
+     */
+    private static String signature(String className, String methodName, int paramLength) {
+        return className + "#" + methodName + "/" + paramLength;
+    }
+
     private Symbol getSymbol(String className, Env<AttrContext> env, Names names, Resolve resolve) {
-        Method loadClass;
-        try {
-            loadClass =
-                    Resolve.class.getDeclaredMethod(
-                            "loadClass", Env.class, Name.class, RecoveryLoadClass.class);
-            loadClass.setAccessible(true);
-        } catch (SecurityException | NoSuchMethodException | IllegalArgumentException e) {
-            // A problem with javac is serious and must be reported.
-            throw new BugInCF("Error in obtaining reflective method.", e);
+        if (loadClass == null) {
+            try {
+                Method method =
+                        Resolve.class.getDeclaredMethod(
+                                "loadClass", Env.class, Name.class, RecoveryLoadClass.class);
+                method.setAccessible(true);
+                loadClass = method;
+            } catch (SecurityException | NoSuchMethodException | IllegalArgumentException e) {
+                // A problem with javac is serious and must be reported.
+                throw new BugInCF("Error in obtaining reflective method.", e);
+            }
         }
         try {
             RecoveryLoadClass noRecovery = (e, n) -> null;
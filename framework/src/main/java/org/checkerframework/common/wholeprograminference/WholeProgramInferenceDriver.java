@@ -0,0 +1,304 @@
+package org.checkerframework.common.wholeprograminference;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import javax.annotation.processing.Processor;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.checkerframework.framework.util.ExecUtil;
+import org.checkerframework.javacutil.BugInCF;
+import org.checkerframework.javacutil.UserError;
+import scenelib.annotations.el.AScene;
+import scenelib.annotations.el.DefException;
+import scenelib.annotations.io.IndexFileParser;
+import scenelib.annotations.io.IndexFileWriter;
+
+/**
+ * Runs whole-program inference to a fixpoint within a single JVM. This is an in-process alternative
+ * to {@code checker/bin/infer-and-annotate.sh}, and takes the same command-line arguments, except
+ * that processor names must be fully-qualified:
+ *
+ * <ol>
+ *   <li>Optional: any number of arguments to {@code insert-annotations-to-source}, each starting
+ *       with a hyphen.
+ *   <li>Comma-separated fully-qualified names of the checkers to run.
+ *   <li>The target program's classpath.
+ *   <li>Optional: any number of extra arguments to the checkers, each starting with a hyphen.
+ *   <li>Optional: paths to .jaif files used as the initial inference results.
+ *   <li>Paths to the .java files of the program.
+ * </ol>
+ *
+ * <p>Each round runs the checkers with {@code -Ainfer} through the Java Compiler API. The Scenes of
+ * a round are kept in memory (see {@link WholeProgramInferenceScenesHelper#startInMemoryRound}) and
+ * are compared structurally with the Scenes of the previous round, so no .jaif files are written or
+ * diffed while inference is still running. Only the .jaif files whose Scene changed are rewritten
+ * and, after the first round, passed to {@code insert-annotations-to-source}. The process halts
+ * when a round changes no Scene.
+ *
+ * <p>Every round type-checks all of the given .java files: inferred annotations reach the users of
+ * a class only through the annotations inserted into its source code, so checking only the classes
+ * whose Scenes changed would miss facts inferred at their uses.
+ *
+ * @checker_framework.manual #whole-program-inference Whole-program inference
+ */
+public class WholeProgramInferenceDriver {
+
+    /** Directory that contains the .class files produced by each round. */
+    private static final String TEMP_DIR =
+            "build" + File.separator + "temp-whole-program-inference-output";
+
+    /** Arguments to {@code insert-annotations-to-source}. */
+    private final List<String> insertArgs = new ArrayList<>();
+
+    /** Fully-qualified names of the checkers to run. */
+    private final List<String> processorNames = new ArrayList<>();
+
+    /** The target program's classpath. */
+    private String classpath;
+
+    /** Extra arguments to the checkers. */
+    private final List<String> extraArgs = new ArrayList<>();
+
+    /** The .java files of the program. */
+    private final List<File> javaFiles = new ArrayList<>();
+
+    /** The Scenes inferred by the last round, keyed by .jaif file path. */
+    private Map<String, AScene> previousScenes = new HashMap<>();
+
+    /**
+     * Creates a driver from command-line arguments in the format described in the class
+     * documentation.
+     *
+     * @param args the command-line arguments
+     */
+    public WholeProgramInferenceDriver(String[] args) {
+        int i = 0;
+        while (i < args.length && args[i].startsWith("-")) {
+            insertArgs.add(args[i++]);
+        }
+        if (args.length - i < 3) {
+            throw new UserError(
+                    "WholeProgramInferenceDriver: Expected at least 3 arguments, received "
+                            + args.length);
+        }
+        processorNames.addAll(Arrays.asList(args[i++].split(",")));
+        classpath = args[i++];
+        for (; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("-")) {
+                extraArgs.add(arg);
+            } else if (arg.endsWith(".jaif")) {
+                String jaifPath =
+                        WholeProgramInferenceScenesHelper.JAIF_FILES_PATH + new File(arg).getName();
+                previousScenes.put(jaifPath, readJaif(arg));
+            } else if (arg.endsWith(".java")) {
+                javaFiles.add(new File(arg));
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int rounds = new WholeProgramInferenceDriver(args).inferAndAnnotate();
+        System.out.println(
+                "Whole-program inference reached a fixpoint after " + rounds + " rounds.");
+    }
+
+    /**
+     * Runs rounds of inference and annotation insertion until a round infers the same Scenes as the
+     * previous one.
+     *
+     * @return the number of rounds that were run
+     */
+    public int inferAndAnnotate() {
+        new File(TEMP_DIR).mkdirs();
+        // Like infer-and-annotate.sh, start from a directory that contains only the input .jaif
+        // files.
+        File jaifDir = new File(WholeProgramInferenceScenesHelper.JAIF_FILES_PATH);
+        jaifDir.mkdirs();
+        File[] oldJaifs = jaifDir.listFiles((dir, name) -> name.endsWith(".jaif"));
+        if (oldJaifs != null) {
+            for (File oldJaif : oldJaifs) {
+                oldJaif.delete();
+            }
+        }
+        for (Map.Entry<String, AScene> entry : previousScenes.entrySet()) {
+            writeJaif(entry.getKey(), entry.getValue());
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        int rounds = 0;
+        while (true) {
+            rounds++;
+            WholeProgramInferenceScenesHelper.startInMemoryRound();
+            Map<String, AScene> scenes;
+            try {
+                runCheckers(compiler, fileManager);
+            } finally {
+                scenes = WholeProgramInferenceScenesHelper.finishInMemoryRound();
+            }
+            List<String> changedJaifs = writeChangedScenes(scenes);
+            previousScenes = scenes;
+            // The input .jaif files are only compared with the first round, so like
+            // infer-and-annotate.sh, insert all of the first round's annotations even if none of
+            // them is new.
+            List<String> insertedJaifs =
+                    rounds == 1 ? new ArrayList<>(new TreeSet<>(scenes.keySet())) : changedJaifs;
+            if (!insertedJaifs.isEmpty()) {
+                insertAnnotations(insertedJaifs);
+            }
+            if (changedJaifs.isEmpty()) {
+                return rounds;
+            }
+        }
+    }
+
+    /**
+     * Type-checks all of the program's .java files with {@code -Ainfer}, reporting errors as
+     * warnings.
+     *
+     * @param compiler the Java compiler
+     * @param fileManager the file manager, which is reused by all rounds
+     */
+    private void runCheckers(JavaCompiler compiler, StandardJavaFileManager fileManager) {
+        List<String> options = new ArrayList<>();
+        options.add("-d");
+        options.add(TEMP_DIR);
+        options.add("-cp");
+        options.add(classpath);
+        options.add("-Ainfer");
+        options.add("-Awarns");
+        options.add("-Xmaxwarns");
+        options.add("10000");
+        options.addAll(extraArgs);
+        Iterable<? extends JavaFileObject> sources =
+                fileManager.getJavaFileObjectsFromFiles(javaFiles);
+        JavaCompiler.CompilationTask task =
+                compiler.getTask(null, fileManager, null, options, null, sources);
+        // The checkers are instantiated here rather than by javac, so that they are loaded by
+        // the same class loader as this class and share its in-memory Scenes.
+        List<Processor> processors = new ArrayList<>();
+        for (String processorName : processorNames) {
+            try {
+                processors.add(
+                        (Processor)
+                                Class.forName(processorName)
+                                        .getDeclaredConstructor()
+                                        .newInstance());
+            } catch (ReflectiveOperationException e) {
+                throw new UserError(
+                        "Cannot instantiate checker " + processorName + ": " + e.getMessage(), e);
+            }
+        }
+        task.setProcessors(processors);
+        // Like infer-and-annotate.sh, continue even if the program does not type-check.
+        task.call();
+    }
+
+    /**
+     * Writes the .jaif file of every Scene that differs from the same Scene in the previous round,
+     * and deletes the .jaif files of Scenes that are now empty.
+     *
+     * @param scenes the Scenes inferred by the last round, keyed by .jaif file path
+     * @return the paths of the .jaif files that were written, in sorted order
+     */
+    private List<String> writeChangedScenes(Map<String, AScene> scenes) {
+        List<String> written = new ArrayList<>();
+        for (String jaifPath : new TreeSet<>(scenes.keySet())) {
+            AScene scene = scenes.get(jaifPath);
+            if (scene.equals(previousScenes.get(jaifPath))) {
+                continue;
+            }
+            writeJaif(jaifPath, scene);
+            written.add(jaifPath);
+        }
+        for (String jaifPath : previousScenes.keySet()) {
+            if (!scenes.containsKey(jaifPath)) {
+                new File(jaifPath).delete();
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Writes a Scene into a .jaif file, replacing any previous contents.
+     *
+     * @param jaifPath the .jaif file to write
+     * @param scene the Scene to write
+     */
+    private static void writeJaif(String jaifPath, AScene scene) {
+        try (FileWriter writer = new FileWriter(jaifPath)) {
+            IndexFileWriter.write(scene, writer);
+        } catch (IOException e) {
+            throw new UserError(
+                    "Problem while writing file: "
+                            + jaifPath
+                            + ". Exception message: "
+                            + e.getMessage(),
+                    e);
+        } catch (DefException e) {
+            throw new BugInCF(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Inserts the annotations in the given .jaif files into the program's .java files by running
+     * {@code insert-annotations-to-source}, which must be on the search path.
+     *
+     * @param jaifPaths the .jaif files whose annotations are inserted
+     */
+    private void insertAnnotations(List<String> jaifPaths) {
+        // Otherwise insert-annotations-to-source would use the backup instead of the updated file.
+        for (File javaFile : javaFiles) {
+            new File(javaFile.getPath() + ".unannotated").delete();
+        }
+        List<String> command = new ArrayList<>();
+        command.add("insert-annotations-to-source");
+        command.addAll(insertArgs);
+        command.add("-i");
+        command.addAll(jaifPaths);
+        for (File javaFile : javaFiles) {
+            command.add(javaFile.getPath());
+        }
+        int exitStatus =
+                ExecUtil.execute(
+                        command.toArray(new String[command.size()]), System.out, System.err);
+        if (exitStatus != 0) {
+            throw new UserError(
+                    "insert-annotations-to-source failed with exit status " + exitStatus);
+        }
+        for (File javaFile : javaFiles) {
+            new File(javaFile.getPath() + ".unannotated").delete();
+        }
+    }
+
+    /**
+     * Reads a .jaif file into a new Scene.
+     *
+     * @param jaifPath the .jaif file to read
+     * @return a Scene containing the annotations in the .jaif file
+     */
+    private static AScene readJaif(String jaifPath) {
+        AScene scene = new AScene();
+        try {
+            IndexFileParser.parseFile(jaifPath, scene);
+        } catch (IOException e) {
+            throw new UserError(
+                    "Problem while reading file in: "
+                            + jaifPath
+                            + ". Exception message: "
+                            + e.getMessage(),
+                    e);
+        }
+        scene.prune();
+        return scene;
+    }
+}
@@ -5,9 +5,11 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.lang.annotation.Target;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
@@ -15,6 +17,7 @@ import javax.lang.model.element.Element;
 import javax.lang.model.type.MirroredTypesException;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.qual.DefaultFor;
 import org.checkerframework.framework.qual.DefaultQualifier;
 import org.checkerframework.framework.qual.DefaultQualifierInHierarchy;
@@ -52,6 +55,11 @@ import scenelib.annotations.io.IndexFileWriter;
  * #JAIF_FILES_PATH} directory. Having more information in those initial .jaif files means that the
  * precision achieved by the whole-program inference analysis will be better. {@link
  * #writeScenesToJaif} rewrites the initial .jaif files, and may create new ones.
+ *
+ * <p>When a {@link WholeProgramInferenceDriver} round is in progress, Scenes are instead kept in
+ * memory, shared by every helper in the JVM, and are neither read from nor written to .jaif files
+ * by this class; the driver collects them at the end of the round. See {@link #startInMemoryRound}
+ * and {@link #finishInMemoryRound}.
  */
 public class WholeProgramInferenceScenesHelper {
 
@@ -72,7 +80,20 @@ public class WholeProgramInferenceScenesHelper {
     private final boolean ignoreNullAssignments;
 
     /** Maps .jaif file paths (Strings) to Scenes. Relative to JAIF_FILES_PATH. */
-    private final Map<String, AScene> scenes = new HashMap<>();
+    private final Map<String, AScene> scenes;
+
+    /**
+     * Scenes shared by all helpers created during the current in-memory round, or null if no
+     * in-memory round is in progress. Maps .jaif file paths to Scenes, like {@link #scenes}.
+     */
+    private static @Nullable Map<String, AScene> inMemoryScenes = null;
+
+    /** The helpers created during the current in-memory round. */
+    private static final List<WholeProgramInferenceScenesHelper> inMemoryHelpers =
+            new ArrayList<>();
+
+    /** True if this helper keeps its Scenes in memory for a {@link WholeProgramInferenceDriver}. */
+    private final boolean inMemory;
 
     /**
      * Set representing Scenes that were modified since the last time all Scenes were written into
@@ -88,13 +109,69 @@ public class WholeProgramInferenceScenesHelper {
 
     public WholeProgramInferenceScenesHelper(boolean ignoreNullAssignments) {
         this.ignoreNullAssignments = ignoreNullAssignments;
+        synchronized (inMemoryHelpers) {
+            this.inMemory = inMemoryScenes != null;
+            if (inMemory) {
+                this.scenes = inMemoryScenes;
+                inMemoryHelpers.add(this);
+            } else {
+                this.scenes = new HashMap<>();
+            }
+        }
+    }
+
+    /**
+     * Starts an in-memory round: until {@link #finishInMemoryRound} is called, every helper that is
+     * created shares one set of initially-empty Scenes, and .jaif files are neither read nor
+     * written.
+     */
+    static void startInMemoryRound() {
+        synchronized (inMemoryHelpers) {
+            inMemoryScenes = new HashMap<>();
+            inMemoryHelpers.clear();
+        }
+    }
+
+    /**
+     * Ends the current in-memory round.
+     *
+     * @return a map from .jaif file path to the pruned Scene that {@link #writeScenesToJaif} would
+     *     have written to that path; empty Scenes are omitted
+     */
+    static Map<String, AScene> finishInMemoryRound() {
+        synchronized (inMemoryHelpers) {
+            if (inMemoryScenes == null) {
+                throw new BugInCF("No in-memory whole-program inference round is in progress");
+            }
+            Map<String, AScene> result = new HashMap<>();
+            for (Map.Entry<String, AScene> entry : inMemoryScenes.entrySet()) {
+                AScene scene = entry.getValue().clone();
+                for (WholeProgramInferenceScenesHelper helper : inMemoryHelpers) {
+                    helper.removeIgnoredAnnosFromScene(scene);
+                }
+                scene.prune();
+                if (!scene.isEmpty()) {
+                    result.put(entry.getKey(), scene);
+                }
+            }
+            inMemoryScenes = null;
+            inMemoryHelpers.clear();
+            return result;
+        }
     }
 
     /**
      * Write all modified scenes into .jaif files. (Scenes are modified by the method {@link
      * #updateAnnotationSetInScene}.)
+     *
+     * <p>Does nothing but forget the modifications during an in-memory round, whose Scenes are
+     * written by the {@link WholeProgramInferenceDriver} once the round is over.
      */
     public void writeScenesToJaif() {
+        if (inMemory) {
+            modifiedScenes.clear();
+            return;
+        }
         // Create .jaif files directory if it doesn't exist already.
         File jaifDir = new File(JAIF_FILES_PATH);
         if (!jaifDir.exists()) {
@@ -140,7 +217,7 @@ public class WholeProgramInferenceScenesHelper {
         if (!scenes.containsKey(jaifPath)) {
             File jaifFile = new File(jaifPath);
             scene = new AScene();
-            if (jaifFile.exists()) {
+            if (!inMemory && jaifFile.exists()) {
                 try {
                     IndexFileParser.parseFile(jaifPath, scene);
                 } catch (IOException e) {
@@ -209,8 +286,43 @@ public class WholeProgramInferenceScenesHelper {
                 return;
             }
         }
+        Map<String, Set<Annotation>> before = annotationsSnapshot(type);
         updateTypeElementFromATM(rhsATM, lhsATM, atf, type, 1, defLoc);
-        modifiedScenes.add(jaifPath);
+        // Only rewrite the .jaif file if the inferred annotations actually changed.
+        if (!before.equals(annotationsSnapshot(type))) {
+            modifiedScenes.add(jaifPath);
+        }
+    }
+
+    /**
+     * Returns the annotations on an ATypeElement and on its inner types, keyed by the location of
+     * each inner type. Inner types without annotations are omitted, so two snapshots are equal
+     * exactly when the annotations that would be written to a .jaif file are the same.
+     *
+     * @param typeEl the ATypeElement whose annotations are returned
+     * @return a map from inner type location to the annotations at that location
+     */
+    private static Map<String, Set<Annotation>> annotationsSnapshot(ATypeElement typeEl) {
+        Map<String, Set<Annotation>> result = new HashMap<>();
+        addAnnotationsToSnapshot(typeEl, "", result);
+        return result;
+    }
+
+    /**
+     * Helper method for {@link #annotationsSnapshot}.
+     *
+     * @param typeEl the ATypeElement whose annotations are added
+     * @param location a description of the location of {@code typeEl}
+     * @param snapshot the map to which the annotations are added
+     */
+    private static void addAnnotationsToSnapshot(
+            ATypeElement typeEl, String location, Map<String, Set<Annotation>> snapshot) {
+        if (!typeEl.tlAnnotationsHere.isEmpty()) {
+            snapshot.put(location, new HashSet<>(typeEl.tlAnnotationsHere));
+        }
+        for (Map.Entry<InnerTypeLocation, ATypeElement> entry : typeEl.innerTypes.entrySet()) {
+            addAnnotationsToSnapshot(entry.getValue(), location + entry.getKey(), snapshot);
+        }
     }
 
     /**
@@ -15,6 +15,7 @@ import java.util.Set;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.TypeElement;
 import javax.tools.Diagnostic.Kind;
+import org.checkerframework.framework.util.CheckerStatistics;
 
 /**
  * An aggregate checker that packages multiple checkers together. The resulting checker invokes the
@@ -123,6 +124,18 @@ public abstract class AggregateChecker extends SourceChecker {
         for (SourceChecker checker : checkers) {
             checker.typeProcessingOver();
         }
+        super.typeProcessingOver();
+    }
+
+    /**
+     * Adds the performance statistics of all component checkers, so that the aggregate checker
+     * writes them to one file.
+     */
+    @Override
+    protected void collectStatistics(List<CheckerStatistics> allStatistics) {
+        for (SourceChecker checker : checkers) {
+            checker.collectStatistics(allStatistics);
+        }
     }
 
     @Override
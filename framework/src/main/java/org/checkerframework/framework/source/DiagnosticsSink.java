@@ -0,0 +1,244 @@
+package org.checkerframework.framework.source;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LineMap;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.Trees;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.tools.Diagnostic;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.javacutil.UserError;
+
+/**
+ * Writes the diagnostics that checkers report to a file as they are reported, one JSON object per
+ * line; see the {@code -AdiagnosticsOutput} command-line option. The diagnostics are neither
+ * formatted as text nor retained. Each line has the following fields:
+ *
+ * <ul>
+ *   <li>{@code checker}: the simple name of the checker that reported the diagnostic
+ *   <li>{@code kind}: {@code error}, {@code warning}, or {@code note}
+ *   <li>{@code key}: the message key
+ *   <li>{@code args}: the arguments of the message, as strings
+ *   <li>{@code file}, {@code line}, {@code column}, {@code start}, {@code end}: the position of the
+ *       diagnostic; absent if it has none
+ *   <li>{@code suppressed}: whether the diagnostic is suppressed, for example by
+ *       {@code @SuppressWarnings}
+ * </ul>
+ *
+ * One sink is shared by all checkers of a compilation, including subcheckers; see {@link
+ * #instance(ProcessingEnvironment, String)}. The file is closed when the last of them calls {@link
+ * #release()}.
+ */
+class DiagnosticsSink {
+
+    /** The key of the DiagnosticsSink of a compilation in the compilation's {@link Context}. */
+    private static final Context.Key<DiagnosticsSink> diagnosticsSinkKey = new Context.Key<>();
+
+    /** The name of the file that is written. */
+    private final String fileName;
+
+    /** Where the diagnostics are written. */
+    private final Writer out;
+
+    /** The number of checkers that use this sink and have not released it yet. */
+    private int users = 0;
+
+    /**
+     * Creates a DiagnosticsSink.
+     *
+     * @param fileName the name of the file to write
+     * @throws UserError if the file cannot be opened
+     */
+    private DiagnosticsSink(String fileName) {
+        this.fileName = fileName;
+        try {
+            this.out = new BufferedWriter(new FileWriter(fileName));
+        } catch (IOException e) {
+            throw ioError(e);
+        }
+    }
+
+    /**
+     * Returns the DiagnosticsSink of the compilation that the given processing environment belongs
+     * to, creating it if necessary. Every call must be matched by a call to {@link #release()}.
+     *
+     * @param env the processing environment
+     * @param fileName the name of the file to write, if the sink has not been created yet
+     * @return the DiagnosticsSink of the compilation
+     * @throws UserError if the file cannot be opened
+     */
+    static DiagnosticsSink instance(ProcessingEnvironment env, String fileName) {
+        Context context = ((JavacProcessingEnvironment) env).getContext();
+        DiagnosticsSink instance = context.get(diagnosticsSinkKey);
+        if (instance == null) {
+            instance = new DiagnosticsSink(fileName);
+            context.put(diagnosticsSinkKey, instance);
+        }
+        instance.users++;
+        return instance;
+    }
+
+    /**
+     * Returns the name of the file that is written.
+     *
+     * @return the name of the file that is written
+     */
+    String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Writes one diagnostic.
+     *
+     * @param checker the name of the checker that reported the diagnostic
+     * @param kind the kind of the diagnostic
+     * @param key the message key
+     * @param args the arguments of the message
+     * @param root the compilation unit that contains {@code tree}, or null
+     * @param tree the tree at which the diagnostic is reported, or null
+     * @param trees the tree utilities
+     * @param suppressed whether the diagnostic is suppressed
+     * @throws UserError if the file cannot be written
+     */
+    void write(
+            String checker,
+            Diagnostic.Kind kind,
+            String key,
+            Object @Nullable [] args,
+            @Nullable CompilationUnitTree root,
+            @Nullable Tree tree,
+            Trees trees,
+            boolean suppressed) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"checker\": ");
+        appendString(sb, checker);
+        sb.append(", \"kind\": ");
+        appendString(sb, kindName(kind));
+        sb.append(", \"key\": ");
+        appendString(sb, key);
+        sb.append(", \"args\": [");
+        if (args != null) {
+            for (int i = 0; i < args.length; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                appendString(sb, String.valueOf(args[i]));
+            }
+        }
+        sb.append("]");
+        if (root != null && tree != null) {
+            SourcePositions positions = trees.getSourcePositions();
+            long start = positions.getStartPosition(root, tree);
+            long end = positions.getEndPosition(root, tree);
+            sb.append(", \"file\": ");
+            appendString(sb, root.getSourceFile().getName());
+            LineMap lineMap = root.getLineMap();
+            if (lineMap != null && start >= 0) {
+                sb.append(", \"line\": ").append(lineMap.getLineNumber(start));
+                sb.append(", \"column\": ").append(lineMap.getColumnNumber(start));
+            }
+            sb.append(", \"start\": ").append(start);
+            sb.append(", \"end\": ").append(end);
+        }
+        sb.append(", \"suppressed\": ").append(suppressed);
+        sb.append("}\n");
+        try {
+            out.write(sb.toString());
+        } catch (IOException e) {
+            throw ioError(e);
+        }
+    }
+
+    /**
+     * Releases this sink for one checker. The file is closed when the last checker releases it.
+     *
+     * @throws UserError if the file cannot be closed
+     */
+    void release() {
+        users--;
+        if (users == 0) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw ioError(e);
+            }
+        }
+    }
+
+    /**
+     * Returns the name of a kind of diagnostic, as written to the file.
+     *
+     * @param kind a kind of diagnostic
+     * @return {@code error}, {@code warning}, or {@code note}
+     */
+    private static String kindName(Diagnostic.Kind kind) {
+        switch (kind) {
+            case ERROR:
+                return "error";
+            case WARNING:
+            case MANDATORY_WARNING:
+                return "warning";
+            default:
+                return "note";
+        }
+    }
+
+    /**
+     * Appends a JSON string literal.
+     *
+     * @param sb where to append
+     * @param s the content of the string literal
+     */
+    private static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Returns the error to throw when the file cannot be written.
+     *
+     * @param e the exception that occurred
+     * @return the error to throw
+     */
+    private UserError ioError(IOException e) {
+        return new UserError(
+                "Problem while writing file: "
+                        + fileName
+                        + ". Exception message: "
+                        + e.getMessage(),
+                e);
+    }
+}
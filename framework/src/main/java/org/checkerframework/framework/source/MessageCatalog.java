@@ -0,0 +1,200 @@
+package org.checkerframework.framework.source;
+
+import java.util.ArrayList;
+import java.util.Formattable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The messages of a checker, compiled so that reporting a diagnostic neither searches for the
+ * message of its key nor parses the message as a format string again.
+ *
+ * <p>{@link #lookup(String)} memoizes the message of each key, including the fallback to shorter
+ * keys that {@link SourceChecker#fullMessageOf(String, String)} performs. {@link #template(String)}
+ * parses a message into a {@link Template} once; templates are shared by all checkers, so a message
+ * that several checkers inherit from the same {@code messages.properties} file is parsed only once.
+ */
+class MessageCatalog {
+
+    /** The templates that have been parsed, keyed by their text. */
+    private static final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    /** The messages of the checker, keyed by message key. */
+    private final Properties messages;
+
+    /** The message of each key that has been looked up; a key that has no message maps to null. */
+    private final Map<String, @Nullable String> resolved = new HashMap<>();
+
+    /**
+     * Creates a MessageCatalog.
+     *
+     * @param messages the messages of the checker, keyed by message key
+     */
+    MessageCatalog(Properties messages) {
+        this.messages = messages;
+    }
+
+    /**
+     * Returns the message for the given key. If there is no message for the key, the key is
+     * shortened by removing its first dot-separated part until a message is found.
+     *
+     * @param messageKey a message key
+     * @return the message for {@code messageKey}, or null if there is none
+     */
+    @Nullable
+    String lookup(String messageKey) {
+        if (resolved.containsKey(messageKey)) {
+            return resolved.get(messageKey);
+        }
+        String result = null;
+        String key = messageKey;
+        while (true) {
+            if (messages.containsKey(key)) {
+                result = messages.getProperty(key);
+                break;
+            }
+            int dot = key.indexOf('.');
+            if (dot < 0) {
+                break;
+            }
+            key = key.substring(dot + 1);
+        }
+        resolved.put(messageKey, result);
+        return result;
+    }
+
+    /**
+     * Returns the parsed form of the given format string.
+     *
+     * @param format a format string, as passed to {@link String#format(String, Object...)}
+     * @return the parsed form of {@code format}
+     */
+    static Template template(String format) {
+        return templates.computeIfAbsent(format, Template::new);
+    }
+
+    /**
+     * A format string parsed into literal text and arguments. Only the format specifiers that
+     * messages use are supported: {@code %s}, {@code %n$s}, {@code %n}, and {@code %%}. A template
+     * that contains any other format specifier cannot be rendered, and {@link String#format(String,
+     * Object...)} has to be used instead.
+     */
+    static class Template {
+
+        /**
+         * The literal text before each argument, and after the last one. Null if the format string
+         * contains a format specifier that is not supported.
+         */
+        private final String @Nullable [] literals;
+
+        /** The index of each argument. */
+        private final int[] argIndices;
+
+        /**
+         * Parses a format string.
+         *
+         * @param format a format string
+         */
+        private Template(String format) {
+            List<String> literalList = new ArrayList<>();
+            List<Integer> indexList = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int ordinaryIndex = 0;
+            boolean supported = true;
+            int length = format.length();
+            for (int i = 0; i < length && supported; i++) {
+                char c = format.charAt(i);
+                if (c != '%') {
+                    literal.append(c);
+                    continue;
+                }
+                if (i + 1 >= length) {
+                    supported = false;
+                    break;
+                }
+                char next = format.charAt(i + 1);
+                if (next == '%') {
+                    literal.append('%');
+                    i++;
+                } else if (next == 'n') {
+                    literal.append(System.lineSeparator());
+                    i++;
+                } else if (next == 's') {
+                    literalList.add(literal.toString());
+                    literal.setLength(0);
+                    indexList.add(ordinaryIndex++);
+                    i++;
+                } else {
+                    // An explicit index, as in "%2$s".
+                    int j = i + 1;
+                    while (j < length && Character.isDigit(format.charAt(j))) {
+                        j++;
+                    }
+                    if (j == i + 1
+                            || j + 1 >= length
+                            || format.charAt(j) != '$'
+                            || format.charAt(j + 1) != 's') {
+                        supported = false;
+                        break;
+                    }
+                    int index;
+                    try {
+                        index = Integer.parseInt(format.substring(i + 1, j)) - 1;
+                    } catch (NumberFormatException e) {
+                        index = -1;
+                    }
+                    if (index < 0) {
+                        supported = false;
+                        break;
+                    }
+                    literalList.add(literal.toString());
+                    literal.setLength(0);
+                    indexList.add(index);
+                    i = j + 1;
+                }
+            }
+            literalList.add(literal.toString());
+
+            if (supported) {
+                this.literals = literalList.toArray(new String[0]);
+                this.argIndices = new int[indexList.size()];
+                for (int i = 0; i < argIndices.length; i++) {
+                    argIndices[i] = indexList.get(i);
+                }
+            } else {
+                this.literals = null;
+                this.argIndices = new int[0];
+            }
+        }
+
+        /**
+         * Renders this template with the given arguments, as {@link String#format(String,
+         * Object...)} would.
+         *
+         * @param args the arguments
+         * @return the rendered message, or null if this template cannot render it; then {@link
+         *     String#format(String, Object...)} has to be used
+         */
+        @Nullable
+        String render(Object @Nullable [] args) {
+            if (literals == null) {
+                return null;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < argIndices.length; i++) {
+                int index = argIndices[i];
+                if (args == null || index >= args.length || args[index] instanceof Formattable) {
+                    return null;
+                }
+                sb.append(literals[i]);
+                sb.append(args[index]);
+            }
+            sb.append(literals[argIndices.length]);
+            return sb.toString();
+        }
+    }
+}
@@ -54,8 +54,10 @@ import org.checkerframework.framework.qual.AnnotatedFor;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.util.CFContext;
 import org.checkerframework.framework.util.CheckerMain;
+import org.checkerframework.framework.util.CheckerStatistics;
 import org.checkerframework.framework.util.OptionConfiguration;
 import org.checkerframework.javacutil.AbstractTypeProcessor;
+import org.checkerframework.javacutil.AnnotationBuilder;
 import org.checkerframework.javacutil.AnnotationProvider;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.BugInCF;
@@ -208,6 +210,11 @@ import org.checkerframework.javacutil.UserError;
     // java.lang.String)
     "requirePrefixInWarningSuppressions",
 
+    // Write each diagnostic to the given file as a JSON object, instead of printing it
+    // org.checkerframework.framework.source.DiagnosticsSink
+    // -AdiagnosticsOutput=diagnostics.jsonl
+    "diagnosticsOutput",
+
     ///
     /// Partially-annotated libraries
     ///
@@ -329,11 +336,25 @@ import org.checkerframework.javacutil.UserError;
     // org.checkerframework.framework.source.SourceChecker.shutdownHook()
     "resourceStats",
 
+    // Write the time spent in each phase of type-checking and the hit rates
+    // of caches, per checker and top-level class, to the given file (CSV, or
+    // JSON if the file name ends with ".json").
+    // org.checkerframework.framework.util.CheckerStatistics
+    // -AperformanceStats=stats.csv
+    "performanceStats",
+
     // Set the cache size for caches in AnnotatedTypeFactory
     "atfCacheSize",
 
     // Sets AnnotatedTypeFactory shouldCache to false
-    "atfDoNotCache"
+    "atfDoNotCache",
+
+    // Set the number of nodes between two stores that the dataflow analysis keeps within a basic
+    // block; 0 keeps none
+    "flowCheckpointInterval",
+
+    // Analyze each method just before it is visited, and release its dataflow results afterward
+    "streamFlowResults"
 })
 public abstract class SourceChecker extends AbstractTypeProcessor
         implements CFContext, OptionConfiguration {
@@ -355,9 +376,21 @@ public abstract class SourceChecker extends AbstractTypeProcessor
     /** Maps error keys to localized/custom error messages. */
     protected Properties messages;
 
+    /** The compiled form of {@link #messages}, or null if it has not been created yet. */
+    private @Nullable MessageCatalog messageCatalog;
+
     /** Used to report error messages and warnings via the compiler. */
     protected Messager messager;
 
+    /**
+     * Where diagnostics are written instead of being reported via the compiler, or null if the
+     * {@code -AdiagnosticsOutput} option was not passed.
+     */
+    private @Nullable DiagnosticsSink diagnosticsSink;
+
+    /** The number of errors that this checker has written to {@link #diagnosticsSink}. */
+    private int diagnosticsSinkErrors = 0;
+
     /** Used as a helper for the {@link SourceVisitor}. */
     protected Trees trees;
 
@@ -450,6 +483,24 @@ public abstract class SourceChecker extends AbstractTypeProcessor
     /** List of upstream checker names. Includes the current checker. */
     protected List<String> upstreamCheckerNames;
 
+    /**
+     * The enclosing declarations of the trees in the current compilation unit. Created on the first
+     * call to {@link #shouldSuppressWarnings(Tree, String)} for the compilation unit.
+     */
+    private @Nullable SuppressionIndex suppressionIndex;
+
+    /**
+     * The values of the {@code -AuseDefaultsForUncheckedCode} option, by kind of code. Null until
+     * the option is first read.
+     */
+    private @Nullable Map<String, Boolean> uncheckedCodeDefaults;
+
+    /**
+     * The performance statistics of this checker, or null if the {@code -AperformanceStats} option
+     * was not passed.
+     */
+    private @Nullable CheckerStatistics statistics;
+
     @Override
     public final synchronized void init(ProcessingEnvironment env) {
         super.init(env);
@@ -483,9 +534,15 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         this.parentChecker = parentChecker;
     }
 
+    /** @return the checker that called this one, or null if this checker calls all others */
+    public @Nullable SourceChecker getParentChecker() {
+        return parentChecker;
+    }
+
     /** Invoked when the current compilation unit root changes. */
     protected void setRoot(CompilationUnitTree newRoot) {
         this.currentRoot = newRoot;
+        this.suppressionIndex = null;
         visitor.setRoot(currentRoot);
     }
 
@@ -887,6 +944,8 @@ public abstract class SourceChecker extends AbstractTypeProcessor
      * @see AbstractProcessor#init(ProcessingEnvironment)
      */
     public void initChecker() {
+        AnnotationBuilder.cacheAnnotations(processingEnv);
+
         // Grab the Trees and Messager instances now; other utilities
         // (like Types and Elements) can be retrieved by subclasses.
         @Nullable Trees trees = Trees.instance(processingEnv);
@@ -896,10 +955,66 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         this.messager = processingEnv.getMessager();
         this.messages = getMessages();
 
+        if (hasOption("diagnosticsOutput") && diagnosticsSink == null) {
+            diagnosticsSink =
+                    DiagnosticsSink.instance(processingEnv, getOption("diagnosticsOutput"));
+        }
+
+        if (hasOption("performanceStats")) {
+            statistics = new CheckerStatistics(this.getClass().getSimpleName());
+        }
+
         this.visitor = createSourceVisitor();
+    }
 
-        // TODO: hack to clear out static caches.
-        AnnotationUtils.clear();
+    /**
+     * Returns the performance statistics of this checker.
+     *
+     * @return the performance statistics of this checker, or null if the {@code -AperformanceStats}
+     *     option was not passed
+     */
+    public @Nullable CheckerStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Adds the performance statistics of this checker and of all checkers it calls to the given
+     * list. The checker that calls all others writes them when type-processing is over.
+     *
+     * @param allStatistics the list to add the statistics to
+     */
+    protected void collectStatistics(List<CheckerStatistics> allStatistics) {
+        if (statistics != null) {
+            allStatistics.add(statistics);
+        }
+    }
+
+    @Override
+    public void typeProcessingOver() {
+        // Subcheckers and the components of an AggregateChecker have a parent checker, so only the
+        // checker that calls all others writes the file.
+        if (parentChecker == null && hasOption("performanceStats")) {
+            List<CheckerStatistics> allStatistics = new ArrayList<>();
+            collectStatistics(allStatistics);
+            if (!allStatistics.isEmpty()) {
+                CheckerStatistics.write(allStatistics, getOption("performanceStats"));
+            }
+        }
+        if (diagnosticsSink != null) {
+            if (diagnosticsSinkErrors > 0) {
+                // Fail the compilation, as the errors would have done.
+                messager.printMessage(
+                        javax.tools.Diagnostic.Kind.ERROR,
+                        this.getClass().getSimpleName()
+                                + " wrote "
+                                + diagnosticsSinkErrors
+                                + " error(s) to "
+                                + diagnosticsSink.getFileName());
+            }
+            diagnosticsSink.release();
+            diagnosticsSink = null;
+        }
+        super.typeProcessingOver();
     }
 
     /**
@@ -1012,7 +1127,14 @@ public abstract class SourceChecker extends AbstractTypeProcessor
 
         // Visit the attributed tree.
         try {
-            visitor.visit(p);
+            if (statistics != null) {
+                statistics.setCurrentClass(e.getQualifiedName().toString());
+                long start = System.nanoTime();
+                visitor.visit(p);
+                statistics.addTime(CheckerStatistics.Phase.VISIT, start);
+            } else {
+                visitor.visit(p);
+            }
             warnUnneededSuppressions();
         } catch (UserError ce) {
             logUserError(ce);
@@ -1212,19 +1334,11 @@ public abstract class SourceChecker extends AbstractTypeProcessor
      * localized message is found.
      */
     protected String fullMessageOf(String messageKey, String defValue) {
-        String key = messageKey;
-
-        do {
-            if (messages.containsKey(key)) {
-                return messages.getProperty(key);
-            }
-
-            int dot = key.indexOf('.');
-            if (dot < 0) {
-                return defValue;
-            }
-            key = key.substring(dot + 1);
-        } while (true);
+        if (messageCatalog == null) {
+            messageCatalog = new MessageCatalog(messages);
+        }
+        String message = messageCatalog.lookup(messageKey);
+        return message == null ? defValue : message;
     }
 
     /**
@@ -1262,8 +1376,10 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             return;
         }
 
-        final String defaultFormat = String.format("(%s)", msgKey);
+        final String defaultFormat = "(" + msgKey + ")";
         String fmtString;
+        // The message, if it could be rendered without String.format.
+        String messageText = null;
         if (this.processingEnv.getOptions() != null /*nnbug*/
                 && this.processingEnv.getOptions().containsKey("nomsgtext")) {
             fmtString = defaultFormat;
@@ -1344,14 +1460,25 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             } else {
                 suppressing = String.format("[%s] ", msgKey);
             }
-            fmtString = suppressing + fullMessageOf(msgKey, defaultFormat);
+            String fullMessage = fullMessageOf(msgKey, defaultFormat);
+            fmtString = suppressing + fullMessage;
+            if (suppressing.indexOf('%') == -1) {
+                String rendered = MessageCatalog.template(fullMessage).render(args);
+                if (rendered != null) {
+                    messageText = suppressing + rendered;
+                }
+            }
         }
-        String messageText;
-        try {
-            messageText = String.format(fmtString, args);
-        } catch (Exception e) {
-            messageText =
-                    "Invalid format string: \"" + fmtString + "\" args: " + Arrays.toString(args);
+        if (messageText == null) {
+            try {
+                messageText = String.format(fmtString, args);
+            } catch (Exception e) {
+                messageText =
+                        "Invalid format string: \""
+                                + fmtString
+                                + "\" args: "
+                                + Arrays.toString(args);
+            }
         }
 
         if (LINE_SEPARATOR != "\n") { // interned
@@ -1437,8 +1564,8 @@ public abstract class SourceChecker extends AbstractTypeProcessor
 
     /**
      * Determines whether an error (whose error key is {@code errKey}) should be suppressed,
-     * according to the user's explicitly-written SuppressWarnings annotation {@code anno} or the
-     * {@code -AsuppressWarnings} command-line argument.
+     * according to the user's explicitly-written SuppressWarnings annotation keys {@code
+     * userSwKeys} or the {@code -AsuppressWarnings} command-line argument.
      *
      * <p>A @SuppressWarnings value may be of the following pattern:
      *
@@ -1451,12 +1578,14 @@ public abstract class SourceChecker extends AbstractTypeProcessor
      *       would suppress any errors in the Nullness Checker related to generic.argument.
      * </ol>
      *
-     * @param anno the @SuppressWarnings annotation written by the user
+     * @param userSwKeys the lowercased keys of the @SuppressWarnings annotation written by the
+     *     user, or null if there is no such annotation
      * @param errKey the error key the checker is emitting
-     * @return true if one of {@code anno}'s keys is returned by {@link
+     * @return true if one of {@code userSwKeys} is returned by {@link
      *     SourceChecker#getSuppressWarningsKeys}; also accounts for errKey
      */
-    private boolean checkSuppressWarnings(@Nullable SuppressWarnings anno, String errKey) {
+    private boolean checkUserOrCommandLineSuppressWarnings(
+            String @Nullable [] userSwKeys, String errKey) {
 
         // Don't suppress warnings if this checker provides no key to do so.
         Collection<String> checkerSwKeys = this.getSuppressWarningsKeys();
@@ -1472,11 +1601,8 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             return true;
         }
 
-        if (anno != null) {
-            String[] userSwKeys = arrayToLowerCase(anno.value());
-            if (checkSuppressWarnings(userSwKeys, errKey)) {
-                return true;
-            }
+        if (checkSuppressWarnings(userSwKeys, errKey)) {
+            return true;
         }
 
         return false;
@@ -1550,20 +1676,19 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             return false;
         }
 
-        // trees.getPath might be slow, but this is only used in error reporting
-        // TODO: #1586 this might return null within a cloned finally block and
+        // TODO: #1586 this returns null within a cloned finally block, and
         // then a warning that should be suppressed isn't. Fix this when fixing #1586.
-        @Nullable TreePath path = trees.getPath(this.currentRoot, tree);
-        if (path == null) {
+        SuppressionIndex.Declarations declarations = getSuppressionIndex().getDeclarations(tree);
+        if (declarations == null) {
             return false;
         }
 
-        @Nullable VariableTree var = TreeUtils.enclosingVariable(path);
+        @Nullable VariableTree var = declarations.variable;
         if (var != null && shouldSuppressWarnings(TreeUtils.elementFromTree(var), errKey)) {
             return true;
         }
 
-        @Nullable MethodTree method = TreeUtils.enclosingMethod(path);
+        @Nullable MethodTree method = declarations.method;
         if (method != null) {
             @Nullable Element elt = TreeUtils.elementFromTree(method);
 
@@ -1579,7 +1704,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             }
         }
 
-        @Nullable ClassTree cls = TreeUtils.enclosingClass(path);
+        @Nullable ClassTree cls = declarations.cls;
         if (cls != null) {
             @Nullable Element elt = TreeUtils.elementFromTree(cls);
 
@@ -1604,6 +1729,19 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         return false;
     }
 
+    /**
+     * Returns the index of the enclosing declarations of the trees in the current compilation unit,
+     * creating it if necessary.
+     *
+     * @return the suppression index of the current compilation unit
+     */
+    private SuppressionIndex getSuppressionIndex() {
+        if (suppressionIndex == null || suppressionIndex.getRoot() != currentRoot) {
+            suppressionIndex = new SuppressionIndex(currentRoot);
+        }
+        return suppressionIndex;
+    }
+
     /**
      * Should unchecked code defaults be used for the kind of code indicated by the parameter.
      *
@@ -1613,15 +1751,21 @@ public abstract class SourceChecker extends AbstractTypeProcessor
     public boolean useUncheckedCodeDefault(String kindOfCode) {
         final boolean useUncheckedDefaultsForSource = false;
         final boolean useUncheckedDefaultsForByteCode = false;
-        String option = this.getOption("useDefaultsForUncheckedCode");
-
-        String[] args = option != null ? option.split(",") : new String[0];
-        for (String arg : args) {
-            boolean value = arg.indexOf("-") != 0;
-            arg = value ? arg : arg.substring(1);
-            if (arg.equals(kindOfCode)) {
-                return value;
+        if (uncheckedCodeDefaults == null) {
+            Map<String, Boolean> defaults = new HashMap<>();
+            String option = this.getOption("useDefaultsForUncheckedCode");
+            String[] args = option != null ? option.split(",") : new String[0];
+            for (String arg : args) {
+                boolean value = arg.indexOf("-") != 0;
+                arg = value ? arg : arg.substring(1);
+                // The first occurrence of a kind of code takes precedence.
+                defaults.putIfAbsent(arg, value);
             }
+            uncheckedCodeDefaults = defaults;
+        }
+        Boolean value = uncheckedCodeDefaults.get(kindOfCode);
+        if (value != null) {
+            return value;
         }
         if (kindOfCode.equals("source")) {
             return useUncheckedDefaultsForSource;
@@ -1667,7 +1811,8 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             return false;
         }
 
-        if (checkSuppressWarnings(elt.getAnnotation(SuppressWarnings.class), errKey)) {
+        if (checkUserOrCommandLineSuppressWarnings(
+                getDeclarationSuppression(elt).suppressWarnings, errKey)) {
             if (hasOption("warnUnneededSuppressions")) {
                 elementsWithSuppressedWarnings.add(elt);
             }
@@ -1684,8 +1829,67 @@ public abstract class SourceChecker extends AbstractTypeProcessor
     }
 
     private boolean isAnnotatedForThisCheckerOrUpstreamChecker(@Nullable Element elt) {
+        return elt != null && getDeclarationSuppression(elt).annotatedForThisChecker;
+    }
+
+    /** The {@code @SuppressWarnings} keys and {@code @AnnotatedFor} state of one element. */
+    private static class DeclarationSuppression {
+        /** The lowercased {@code @SuppressWarnings} keys of the element, or null if none. */
+        final String @Nullable [] suppressWarnings;
+
+        /**
+         * Whether the element is annotated with an {@code @AnnotatedFor} for this checker or an
+         * upstream checker, and unchecked code defaults are used for source code.
+         */
+        final boolean annotatedForThisChecker;
+
+        /**
+         * Creates a DeclarationSuppression.
+         *
+         * @param suppressWarnings the lowercased {@code @SuppressWarnings} keys, or null
+         * @param annotatedForThisChecker whether the element is annotated for this checker
+         */
+        DeclarationSuppression(
+                String @Nullable [] suppressWarnings, boolean annotatedForThisChecker) {
+            this.suppressWarnings = suppressWarnings;
+            this.annotatedForThisChecker = annotatedForThisChecker;
+        }
+    }
+
+    /**
+     * Cache of the {@code @SuppressWarnings} keys and {@code @AnnotatedFor} state of elements, so
+     * that their annotations are read only once.
+     */
+    private final Map<Element, DeclarationSuppression> declarationSuppressions = new HashMap<>();
+
+    /**
+     * Returns the {@code @SuppressWarnings} keys and {@code @AnnotatedFor} state of an element.
+     *
+     * @param elt an element
+     * @return the {@code @SuppressWarnings} keys and {@code @AnnotatedFor} state of {@code elt}
+     */
+    private DeclarationSuppression getDeclarationSuppression(Element elt) {
+        DeclarationSuppression result = declarationSuppressions.get(elt);
+        if (result == null) {
+            SuppressWarnings suppressAnno = elt.getAnnotation(SuppressWarnings.class);
+            result =
+                    new DeclarationSuppression(
+                            suppressAnno == null ? null : arrayToLowerCase(suppressAnno.value()),
+                            computeIsAnnotatedForThisCheckerOrUpstreamChecker(elt));
+            declarationSuppressions.put(elt, result);
+        }
+        return result;
+    }
 
-        if (elt == null || !useUncheckedCodeDefault("source")) {
+    /**
+     * Returns true if unchecked code defaults are used for source code, and the element is
+     * annotated with an {@code @AnnotatedFor} for this checker or an upstream checker.
+     *
+     * @param elt an element
+     * @return true if {@code elt} is annotated for this checker or an upstream checker
+     */
+    private boolean computeIsAnnotatedForThisCheckerOrUpstreamChecker(Element elt) {
+        if (!useUncheckedCodeDefault("source")) {
             return false;
         }
 
@@ -1720,6 +1924,14 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         }
 
         String errKey = r.getMessageKeys().iterator().next();
+        if (diagnosticsSink != null) {
+            boolean suppressed =
+                    (src instanceof Tree && shouldSuppressWarnings((Tree) src, errKey))
+                            || (src instanceof Element
+                                    && shouldSuppressWarnings((Element) src, errKey));
+            writeToDiagnosticsSink(r, src, suppressed);
+            return;
+        }
         if (src instanceof Tree && shouldSuppressWarnings((Tree) src, errKey)) {
             return;
         }
@@ -1745,6 +1957,62 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         }
     }
 
+    /**
+     * Writes the messages of a result to {@link #diagnosticsSink}, without formatting them.
+     *
+     * @param r the result to write
+     * @param src the position object associated with the result
+     * @param suppressed whether the result is suppressed
+     * @throws BugInCF if {@code src} is neither a {@link Tree} nor an {@link Element}
+     */
+    private void writeToDiagnosticsSink(Result r, Object src, boolean suppressed) {
+        Diagnostic.Kind kind;
+        if (r.isFailure()) {
+            kind = hasOption("warns") ? Diagnostic.Kind.MANDATORY_WARNING : Diagnostic.Kind.ERROR;
+        } else if (r.isWarning()) {
+            kind = Diagnostic.Kind.MANDATORY_WARNING;
+        } else {
+            kind = Diagnostic.Kind.NOTE;
+        }
+
+        CompilationUnitTree root;
+        Tree tree;
+        if (src instanceof Tree) {
+            root = currentRoot;
+            tree = (Tree) src;
+        } else if (src instanceof Element) {
+            TreePath path = trees.getPath((Element) src);
+            root = path == null ? null : path.getCompilationUnit();
+            tree = path == null ? null : path.getLeaf();
+        } else {
+            throw new BugInCF("invalid position source: " + src.getClass().getName());
+        }
+
+        for (Result.DiagMessage msg : r.getDiagMessages()) {
+            Object[] args = msg.getArgs();
+            if (args != null) {
+                args = args.clone();
+                for (int i = 0; i < args.length; ++i) {
+                    if (args[i] != null) {
+                        args[i] = processArg(args[i]);
+                    }
+                }
+            }
+            diagnosticsSink.write(
+                    this.getClass().getSimpleName(),
+                    kind,
+                    msg.getMessageKey(),
+                    args,
+                    root,
+                    tree,
+                    trees,
+                    suppressed);
+            if (kind == Diagnostic.Kind.ERROR && !suppressed) {
+                diagnosticsSinkErrors++;
+            }
+        }
+    }
+
     /**
      * Determines the value of the lint option with the given name. Just as <a
      * href="https://docs.oracle.com/javase/7/docs/technotes/guides/javac/index.html">javac</a> uses
@@ -1927,6 +2195,9 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         Map<String, String> activeOpts = new HashMap<>(getOptions());
         activeOpts.putAll(moreopts);
         activeOptions = Collections.unmodifiableMap(activeOpts);
+        // These depend on the options.
+        uncheckedCodeDefaults = null;
+        declarationSuppressions.clear();
     }
 
     /**
@@ -0,0 +1,112 @@
+package org.checkerframework.framework.source;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.TreeScanner;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.javacutil.TreeUtils;
+
+/**
+ * Maps every tree of one compilation unit to the innermost variable, method, and class declarations
+ * that enclose it: the declarations whose {@code @SuppressWarnings} and {@code @AnnotatedFor}
+ * annotations {@link SourceChecker#shouldSuppressWarnings(Tree, String)} consults. The index is
+ * built by a single scan of the compilation unit, so that looking up the declarations of a tree
+ * does not require searching for its {@code TreePath}.
+ *
+ * <p>A tree is its own enclosing declaration if it is a declaration, as for {@link
+ * TreeUtils#enclosingVariable}, {@link TreeUtils#enclosingMethod}, and {@link
+ * TreeUtils#enclosingClass}.
+ */
+class SuppressionIndex {
+
+    /** The innermost variable, method, and class declarations that enclose a tree. */
+    static class Declarations {
+        /** The innermost enclosing variable declaration, or null. */
+        final @Nullable VariableTree variable;
+        /** The innermost enclosing method declaration, or null. */
+        final @Nullable MethodTree method;
+        /** The innermost enclosing class declaration, or null. */
+        final @Nullable ClassTree cls;
+
+        /**
+         * Creates a Declarations.
+         *
+         * @param variable the innermost enclosing variable declaration, or null
+         * @param method the innermost enclosing method declaration, or null
+         * @param cls the innermost enclosing class declaration, or null
+         */
+        Declarations(
+                @Nullable VariableTree variable,
+                @Nullable MethodTree method,
+                @Nullable ClassTree cls) {
+            this.variable = variable;
+            this.method = method;
+            this.cls = cls;
+        }
+    }
+
+    /** The compilation unit that is indexed. */
+    private final CompilationUnitTree root;
+
+    /**
+     * The enclosing declarations of every tree in {@link #root}. Trees that have the same enclosing
+     * declarations share one {@link Declarations} object.
+     */
+    private final Map<Tree, Declarations> declarations = new IdentityHashMap<>();
+
+    /**
+     * Indexes the given compilation unit.
+     *
+     * @param root the compilation unit
+     */
+    SuppressionIndex(CompilationUnitTree root) {
+        this.root = root;
+        new Indexer().scan(root, new Declarations(null, null, null));
+    }
+
+    /**
+     * Returns the compilation unit that is indexed.
+     *
+     * @return the compilation unit that is indexed
+     */
+    CompilationUnitTree getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the innermost declarations that enclose the given tree.
+     *
+     * @param tree a tree
+     * @return the innermost declarations that enclose {@code tree}, or null if {@code tree} is not
+     *     part of the indexed compilation unit
+     */
+    @Nullable
+    Declarations getDeclarations(Tree tree) {
+        return declarations.get(tree);
+    }
+
+    /** Records the enclosing declarations of every tree it scans. */
+    private class Indexer extends TreeScanner<Void, Declarations> {
+        @Override
+        public Void scan(Tree tree, Declarations enclosing) {
+            if (tree == null) {
+                return null;
+            }
+            Declarations current = enclosing;
+            if (tree.getKind() == Tree.Kind.VARIABLE) {
+                current = new Declarations((VariableTree) tree, enclosing.method, enclosing.cls);
+            } else if (tree.getKind() == Tree.Kind.METHOD) {
+                current = new Declarations(enclosing.variable, (MethodTree) tree, enclosing.cls);
+            } else if (TreeUtils.isClassTree(tree)) {
+                current = new Declarations(enclosing.variable, enclosing.method, (ClassTree) tree);
+            }
+            declarations.put(tree, current);
+            return super.scan(tree, current);
+        }
+    }
+}
@@ -170,6 +170,13 @@ public class StubParser {
     /** Output variable: .... */
     Map<String, Set<AnnotationMirror>> declAnnos;
 
+    /**
+     * The top-level type declarations that have not been processed yet, keyed by the
+     * fully-qualified name of the type. Empty unless the stub file was parsed by {@link
+     * #parseLazily}.
+     */
+    private final Map<String, List<PendingType>> pendingTypes = new HashMap<>();
+
     /** The line separator. */
     private static final String LINE_SEPARATOR = System.lineSeparator().intern();
 
@@ -381,18 +388,159 @@ public class StubParser {
             sp.parseStubUnit(inputStream);
             sp.process();
         } catch (ParseProblemException e) {
-            StringBuilder message =
-                    new StringBuilder(
-                            "exception while parsing stub file "
-                                    + filename
-                                    + ". Encountered problems: ");
-            // Manually build up the message, to get verbose location information.
-            for (Problem p : e.getProblems()) {
-                message.append(p.getVerboseMessage());
-                message.append(LINE_SEPARATOR);
+            sp.warnParseProblem(e);
+        }
+    }
+
+    /**
+     * Issues a warning about problems that occurred while parsing the stub file.
+     *
+     * @param e the exception that the Stub Parser threw
+     */
+    private void warnParseProblem(ParseProblemException e) {
+        StringBuilder message =
+                new StringBuilder(
+                        "exception while parsing stub file "
+                                + filename
+                                + ". Encountered problems: ");
+        // Manually build up the message, to get verbose location information.
+        for (Problem p : e.getProblems()) {
+            message.append(p.getVerboseMessage());
+            message.append(LINE_SEPARATOR);
+        }
+        stubWarn(message.toString());
+    }
+
+    /**
+     * Parses a stub file, but processes the declarations of a top-level type only when {@link
+     * #processPendingType} is called for it. This avoids looking up and annotating the elements of
+     * the many types in a large stub file such as {@code jdk.astub} that a compilation never uses.
+     * Package annotations are processed right away.
+     *
+     * <p>If any option that issues warnings about the contents of stub files is passed, the whole
+     * stub file is processed right away, as by {@link #parse}, so that all warnings are issued.
+     *
+     * @param filename name of stub file, used only for diagnostic messages
+     * @param inputStream of stub file to parse
+     * @param atypeFactory AnnotatedtypeFactory to use
+     * @param processingEnv ProcessingEnviroment to use
+     * @param atypes where the types of processed elements are added
+     * @param declAnnos where the declaration annotations of processed elements are added
+     * @return the parser, whose pending types are processed by {@link #processPendingType}; null if
+     *     no types are pending
+     */
+    public static @Nullable StubParser parseLazily(
+            String filename,
+            InputStream inputStream,
+            AnnotatedTypeFactory atypeFactory,
+            ProcessingEnvironment processingEnv,
+            Map<Element, AnnotatedTypeMirror> atypes,
+            Map<String, Set<AnnotationMirror>> declAnnos) {
+        StubParser sp =
+                new StubParser(
+                        filename, atypeFactory, processingEnv, new HashMap<>(), new HashMap<>());
+        if (sp.warnIfNotFound
+                || sp.warnIfStubOverwritesBytecode
+                || sp.warnIfStubRedundantWithBytecode
+                || sp.debugStubParser) {
+            parse(filename, inputStream, atypeFactory, processingEnv, atypes, declAnnos);
+            return null;
+        }
+        try {
+            sp.parseStubUnit(inputStream);
+        } catch (ParseProblemException e) {
+            sp.warnParseProblem(e);
+            return null;
+        }
+        for (CompilationUnit cu : sp.stubUnit.getCompilationUnits()) {
+            sp.indexCompilationUnit(cu);
+        }
+        sp.moveResultsTo(atypes, declAnnos);
+        return sp.pendingTypes.isEmpty() ? null : sp;
+    }
+
+    /**
+     * Returns true if the declarations of some types have not been processed yet.
+     *
+     * @return true if the declarations of some types have not been processed yet
+     */
+    public boolean hasPendingTypes() {
+        return !pendingTypes.isEmpty();
+    }
+
+    /**
+     * Processes the declarations of the given top-level type, if they have not been processed yet.
+     * Types and declaration annotations that are already in {@code atypes} and {@code declAnnos},
+     * which come from stub files that were parsed later, take precedence, as if this stub file had
+     * been processed first.
+     *
+     * @param typeName the fully-qualified name of a top-level type
+     * @param atypes where the types of processed elements are added
+     * @param declAnnos where the declaration annotations of processed elements are added
+     */
+    public void processPendingType(
+            String typeName,
+            Map<Element, AnnotatedTypeMirror> atypes,
+            Map<String, Set<AnnotationMirror>> declAnnos) {
+        List<PendingType> types = pendingTypes.remove(typeName);
+        if (types == null) {
+            return;
+        }
+        for (PendingType type : types) {
+            parseState = new FqName(type.packageName, null);
+            processTypeDecl(type.typeDecl, null, type.packageAnnos);
+        }
+        moveResultsTo(atypes, declAnnos);
+    }
+
+    /**
+     * Processes the package declaration of a compilation unit, and records its type declarations in
+     * {@link #pendingTypes}.
+     *
+     * @param cu a compilation unit of the stub file
+     */
+    private void indexCompilationUnit(CompilationUnit cu) {
+        String packageName = null;
+        List<AnnotationExpr> packageAnnos = null;
+        if (cu.getPackageDeclaration().isPresent()) {
+            PackageDeclaration pDecl = cu.getPackageDeclaration().get();
+            packageName = pDecl.getNameAsString();
+            packageAnnos = pDecl.getAnnotations();
+            processPackage(pDecl);
+        }
+        if (cu.getTypes() != null) {
+            for (TypeDeclaration<?> typeDecl : cu.getTypes()) {
+                String typeName = typeDecl.getNameAsString();
+                String fqTypeName = packageName == null ? typeName : packageName + "." + typeName;
+                pendingTypes
+                        .computeIfAbsent(fqTypeName, k -> new ArrayList<>(1))
+                        .add(new PendingType(typeDecl, packageName, packageAnnos));
+            }
+        }
+    }
+
+    /**
+     * Moves the types and declaration annotations that this parser has collected to the given maps.
+     * Entries that are already in the given maps take precedence.
+     *
+     * @param atypes where the types are added
+     * @param declAnnos where the declaration annotations are added
+     */
+    private void moveResultsTo(
+            Map<Element, AnnotatedTypeMirror> atypes,
+            Map<String, Set<AnnotationMirror>> declAnnos) {
+        for (Map.Entry<Element, AnnotatedTypeMirror> entry : this.atypes.entrySet()) {
+            AnnotatedTypeMirror later = atypes.get(entry.getKey());
+            if (later != null) {
+                AnnotatedTypeMerger.merge(later, entry.getValue());
             }
-            sp.stubWarn(message.toString());
+            atypes.put(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, Set<AnnotationMirror>> entry : this.declAnnos.entrySet()) {
+            putOrAddToMap(declAnnos, entry.getKey(), entry.getValue());
         }
+        this.atypes.clear();
+        this.declAnnos.clear();
     }
 
     /**
@@ -1892,6 +2040,34 @@ public class StubParser {
     /// Parse state
     ///
 
+    /** A top-level type declaration whose processing is deferred; see {@link #parseLazily}. */
+    private static class PendingType {
+        /** The type declaration. */
+        final TypeDeclaration<?> typeDecl;
+
+        /** The name of the package of the type, or null. */
+        final @Nullable String packageName;
+
+        /** The annotations of the package of the type, or null. */
+        final @Nullable List<AnnotationExpr> packageAnnos;
+
+        /**
+         * Creates a PendingType.
+         *
+         * @param typeDecl the type declaration
+         * @param packageName the name of the package of the type, or null
+         * @param packageAnnos the annotations of the package of the type, or null
+         */
+        PendingType(
+                TypeDeclaration<?> typeDecl,
+                @Nullable String packageName,
+                @Nullable List<AnnotationExpr> packageAnnos) {
+            this.typeDecl = typeDecl;
+            this.packageName = packageName;
+            this.packageAnnos = packageAnnos;
+        }
+    }
+
     /** Represents a class: its package name and simple name. */
     private static class FqName {
         /** Name of the package being parsed, or null. */
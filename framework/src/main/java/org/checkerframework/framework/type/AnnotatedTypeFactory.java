@@ -92,11 +92,13 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedWildcard
 import org.checkerframework.framework.util.AnnotatedTypes;
 import org.checkerframework.framework.util.AnnotationFormatter;
 import org.checkerframework.framework.util.CFContext;
+import org.checkerframework.framework.util.CheckerStatistics;
 import org.checkerframework.framework.util.DefaultAnnotationFormatter;
 import org.checkerframework.framework.util.FieldInvariants;
 import org.checkerframework.framework.util.GraphQualifierHierarchy;
 import org.checkerframework.framework.util.MultiGraphQualifierHierarchy;
 import org.checkerframework.framework.util.MultiGraphQualifierHierarchy.MultiGraphFactory;
+import org.checkerframework.framework.util.OverrideIndex;
 import org.checkerframework.framework.util.TreePathCacher;
 import org.checkerframework.framework.util.typeinference.DefaultTypeArgumentInference;
 import org.checkerframework.framework.util.typeinference.TypeArgInferenceUtil;
@@ -219,6 +221,8 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
     // Initially null, then assigned in postInit().  Caching is enabled as
     // soon as this is non-null, so it should be first set to its final
     // value, not initialized to an empty map that is incrementally filled.
+    // The only exception are the types from jdk.astub, which are added before any element of
+    // their top-level type is looked up; see processJdkStubFor.
     private Map<Element, AnnotatedTypeMirror> typesFromStubFiles;
 
     /**
@@ -230,6 +234,19 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
     // Not final, because it is assigned in postInit().
     private Map<String, Set<AnnotationMirror>> declAnnosFromStubFiles;
 
+    /**
+     * The parser of jdk.astub, whose types are added to {@link #typesFromStubFiles} and {@link
+     * #declAnnosFromStubFiles} the first time an element of them is looked up; see {@link
+     * #processJdkStubFor(Element)}. Null if jdk.astub was processed completely.
+     */
+    private @Nullable StubParser jdkStubParser;
+
+    /**
+     * True while {@link #jdkStubParser} processes a type. Then no other types are processed and
+     * nothing is cached, as while the stub files are parsed at startup.
+     */
+    private boolean processingJdkStub = false;
+
     /**
      * A cache used to store elements whose declaration annotations have already been stored by
      * calling the method {@link #getDeclAnnotations(Element)}.
@@ -383,9 +400,18 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
     /** Mapping from an Element to the source Tree of the declaration. */
     private final Map<Element, Tree> elementToTreeCache;
 
+    /**
+     * Mapping from a declared type to its direct supertypes; defaults have been applied. Only the
+     * types that {@link DirectSuperTypesKey} can represent are cached.
+     */
+    private final Map<DirectSuperTypesKey, List<AnnotatedDeclaredType>> directSuperTypesCache;
+
     /** Mapping from a Tree to its TreePath. Shared between all instances. */
     private final TreePathCacher treePathCache;
 
+    /** Mapping from a method to the methods it overrides. Shared between all instances. */
+    private final OverrideIndex overrideIndex;
+
     /** Mapping from CFG generated trees to their enclosing elements. */
     private final Map<Tree, Element> artificialTreeToEnclosingElementMap;
 
@@ -431,6 +457,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         this.artificialTreeToEnclosingElementMap = new HashMap<>();
         // get the shared instance from the checker
         this.treePathCache = checker.getTreePathCacher();
+        this.overrideIndex = checker.getOverrideIndex();
 
         this.shouldCache = !checker.hasOption("atfDoNotCache");
         if (shouldCache) {
@@ -441,6 +468,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             this.fromTypeTreeCache = CollectionUtils.createLRUCache(cacheSize);
             this.elementCache = CollectionUtils.createLRUCache(cacheSize);
             this.elementToTreeCache = CollectionUtils.createLRUCache(cacheSize);
+            this.directSuperTypesCache = CollectionUtils.createLRUCache(cacheSize);
         } else {
             this.classAndMethodTreeCache = null;
             this.fromExpressionTreeCache = null;
@@ -448,6 +476,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             this.fromTypeTreeCache = null;
             this.elementCache = null;
             this.elementToTreeCache = null;
+            this.directSuperTypesCache = null;
         }
 
         this.typeFormatter = createAnnotatedTypeFormatter();
@@ -625,6 +654,8 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             fromMemberTreeCache.clear();
             fromTypeTreeCache.clear();
             classAndMethodTreeCache.clear();
+            // The supertypes of a class declared in source are read from its tree.
+            directSuperTypesCache.clear();
 
             // There is no need to clear the following cache, it is limited by cache size and it
             // contents won't change between compilation units.
@@ -1009,6 +1040,16 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         return Collections.unmodifiableSet(supportedQuals);
     }
 
+    /**
+     * Returns the index of overridden methods, which is shared by all type factories of the
+     * compilation.
+     *
+     * @return the index of overridden methods
+     */
+    public OverrideIndex getOverrideIndex() {
+        return overrideIndex;
+    }
+
     // **********************************************************************
     // Factories for annotated types that account for default qualifiers
     // **********************************************************************
@@ -1080,7 +1121,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         if (tree == null) {
             throw new BugInCF("AnnotatedTypeFactory.getAnnotatedType: null tree");
         }
-        if (shouldCache && classAndMethodTreeCache.containsKey(tree)) {
+        if (shouldCache && isCached(classAndMethodTreeCache, tree, "classAndMethodTreeCache")) {
             return classAndMethodTreeCache.get(tree).deepCopy();
         }
 
@@ -1121,6 +1162,21 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      */
     public void preProcessClassTree(ClassTree classTree) {}
 
+    /**
+     * Called by {@link BaseTypeVisitor#scan(Tree, Void)} before the methodTree is type checked.
+     *
+     * @param methodTree MethodTree on which to perform preprocessing
+     */
+    public void preProcessMethodTree(MethodTree methodTree) {}
+
+    /**
+     * Called by {@link BaseTypeVisitor#scan(Tree, Void)} after the methodTree has been type
+     * checked.
+     *
+     * @param methodTree MethodTree on which to perform postprocessing
+     */
+    public void postProcessMethodTree(MethodTree methodTree) {}
+
     /**
      * Called by {@link BaseTypeVisitor#visitClass(ClassTree, Void)} after the ClassTree has been
      * type checked.
@@ -1203,6 +1259,24 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
     // They only include qualifiers explicitly inserted by the user.
     // **********************************************************************
 
+    /**
+     * Returns true if the cache contains the key, and records the lookup if the {@code
+     * -AperformanceStats} option was passed.
+     *
+     * @param cache the cache
+     * @param key the key to look up
+     * @param cacheName the name of the cache
+     * @return true if {@code cache} contains {@code key}
+     */
+    private boolean isCached(Map<?, ?> cache, Object key, String cacheName) {
+        boolean hit = cache.containsKey(key);
+        CheckerStatistics statistics = checker.getStatistics();
+        if (statistics != null) {
+            statistics.countCacheLookup(cacheName, hit);
+        }
+        return hit;
+    }
+
     /**
      * Creates an AnnotatedTypeMirror for {@code elt} that includes: annotations explicitly written
      * on the element and annotations from stub files.
@@ -1211,12 +1285,13 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @return AnnotatedTypeMirror of the element with explicitly-written and stub file annotations
      */
     public AnnotatedTypeMirror fromElement(Element elt) {
-        if (shouldCache && elementCache.containsKey(elt)) {
+        if (shouldCache && isCached(elementCache, elt, "elementCache")) {
             return elementCache.get(elt).deepCopy();
         }
         if (elt.getKind() == ElementKind.PACKAGE) {
             return toAnnotatedType(elt.asType(), false);
         }
+        processJdkStubFor(elt);
         AnnotatedTypeMirror type;
 
         // Because of a bug in Java 8, annotations on type parameters are not stored in elements,
@@ -1251,12 +1326,54 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         // Caching is disabled if typesFromStubFiles == null, because calls to this
         // method before the stub files are fully read can return incorrect
         // results.
-        if (shouldCache && typesFromStubFiles != null) {
+        if (shouldCache && typesFromStubFiles != null && !processingJdkStub) {
             elementCache.put(elt, type.deepCopy());
         }
         return type;
     }
 
+    /**
+     * Adds the types and declaration annotations from jdk.astub for the top-level type that
+     * encloses {@code elt} to {@link #typesFromStubFiles} and {@link #declAnnosFromStubFiles}, if
+     * that has not been done yet.
+     *
+     * @param elt an element
+     */
+    private void processJdkStubFor(Element elt) {
+        if (jdkStubParser == null || processingJdkStub || typesFromStubFiles == null) {
+            // The stub files are being parsed.
+            return;
+        }
+        TypeElement topLevel = null;
+        for (Element e = elt;
+                e != null && e.getKind() != ElementKind.PACKAGE;
+                e = e.getEnclosingElement()) {
+            if (e instanceof TypeElement) {
+                topLevel = (TypeElement) e;
+            }
+        }
+        if (topLevel == null) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        processingJdkStub = true;
+        try {
+            jdkStubParser.processPendingType(
+                    topLevel.getQualifiedName().toString(),
+                    typesFromStubFiles,
+                    declAnnosFromStubFiles);
+        } finally {
+            processingJdkStub = false;
+        }
+        if (!jdkStubParser.hasPendingTypes()) {
+            jdkStubParser = null;
+        }
+        CheckerStatistics statistics = checker.getStatistics();
+        if (statistics != null) {
+            statistics.addTime(CheckerStatistics.Phase.STUB_PARSING, startNanos);
+        }
+    }
+
     /**
      * Adds @FromByteCode to methods, constructors, and fields declared in class files that are not
      * already annotated with @FromStubFile.
@@ -1311,7 +1428,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
                     "AnnotatedTypeFactory.fromMember: not a method or variable declaration: "
                             + tree);
         }
-        if (shouldCache && fromMemberTreeCache.containsKey(tree)) {
+        if (shouldCache && isCached(fromMemberTreeCache, tree, "fromMemberTreeCache")) {
             return fromMemberTreeCache.get(tree).deepCopy();
         }
         AnnotatedTypeMirror result = TypeFromTree.fromMember(this, tree);
@@ -1338,7 +1455,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @see TypeFromExpressionVisitor
      */
     private AnnotatedTypeMirror fromExpression(ExpressionTree tree) {
-        if (shouldCache && fromExpressionTreeCache.containsKey(tree)) {
+        if (shouldCache && isCached(fromExpressionTreeCache, tree, "fromExpressionTreeCache")) {
             return fromExpressionTreeCache.get(tree).deepCopy();
         }
 
@@ -1363,7 +1480,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @return the (partially) annotated type of the type in the AST
      */
     /*package private*/ final AnnotatedTypeMirror fromTypeTree(Tree tree) {
-        if (shouldCache && fromTypeTreeCache.containsKey(tree)) {
+        if (shouldCache && isCached(fromTypeTreeCache, tree, "fromTypeTreeCache")) {
             return fromTypeTreeCache.get(tree).deepCopy();
         }
 
@@ -1425,6 +1542,82 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         // Pass.
     }
 
+    /**
+     * Returns the direct supertypes of the given declared type. The result is computed by {@link
+     * SupertypeFinder} and cached; every call returns new copies of the supertypes, which the
+     * caller may modify.
+     *
+     * @param type a declared type
+     * @return the direct supertypes of {@code type}
+     */
+    /*package-private*/ List<AnnotatedDeclaredType> directSuperTypes(AnnotatedDeclaredType type) {
+        if (!shouldCache || type.getEnclosingType() != null) {
+            return SupertypeFinder.directSuperTypes(type);
+        }
+        DirectSuperTypesKey key = new DirectSuperTypesKey(type);
+        if (isCached(directSuperTypesCache, key, "directSuperTypesCache")) {
+            return copySuperTypes(directSuperTypesCache.get(key));
+        }
+        List<AnnotatedDeclaredType> supertypes = SupertypeFinder.directSuperTypes(type);
+        // Copy the key and the supertypes, because the caller may modify both.
+        directSuperTypesCache.put(
+                new DirectSuperTypesKey(type.deepCopy()), copySuperTypes(supertypes));
+        return supertypes;
+    }
+
+    /**
+     * Returns a deep copy of each of the given supertypes.
+     *
+     * @param supertypes a list of supertypes
+     * @return a new list that contains a deep copy of each element of {@code supertypes}
+     */
+    private static List<AnnotatedDeclaredType> copySuperTypes(
+            List<AnnotatedDeclaredType> supertypes) {
+        List<AnnotatedDeclaredType> copies = new ArrayList<>(supertypes.size());
+        for (AnnotatedDeclaredType supertype : supertypes) {
+            copies.add(supertype.deepCopy());
+        }
+        return copies;
+    }
+
+    /**
+     * A key of {@link #directSuperTypesCache}. {@link AnnotatedTypeMirror#equals} compares the
+     * annotations, the underlying types, and the type arguments of two declared types, but not
+     * whether they were raw, which also determines their supertypes. Types with an enclosing type,
+     * which {@code equals} ignores as well, are not cached.
+     */
+    private static class DirectSuperTypesKey {
+        /** The declared type. */
+        private final AnnotatedDeclaredType type;
+
+        /** Whether {@link #type} was raw. */
+        private final boolean wasRaw;
+
+        /**
+         * Creates a key for the given type.
+         *
+         * @param type a declared type without an enclosing type
+         */
+        DirectSuperTypesKey(AnnotatedDeclaredType type) {
+            this.type = type;
+            this.wasRaw = type.wasRaw();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof DirectSuperTypesKey)) {
+                return false;
+            }
+            DirectSuperTypesKey other = (DirectSuperTypesKey) o;
+            return wasRaw == other.wasRaw && type.equals(other.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return type.hashCode() * 2 + (wasRaw ? 1 : 0);
+        }
+    }
+
     /**
      * A callback method for the AnnotatedTypeFactory subtypes to customize directSuperTypes().
      * Overriding methods should merely change the annotations on the supertypes, without adding or
@@ -2745,7 +2938,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         if (root == null) {
             return null;
         }
-        if (shouldCache && elementToTreeCache.containsKey(elt)) {
+        if (shouldCache && isCached(elementToTreeCache, elt, "elementToTreeCache")) {
             return elementToTreeCache.get(elt);
         }
 
@@ -2880,8 +3073,9 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
 
     /**
      * Gets the path for the given {@link Tree} under the current root by checking from the
-     * visitor's current path, and only using {@link Trees#getPath(CompilationUnitTree, Tree)}
-     * (which is much slower) only if {@code node} is not found on the current path.
+     * visitor's current path, and only using the {@link TreePathCacher} (which must index the
+     * compilation unit the first time it is used for it) if {@code node} is not found on the
+     * current path.
      *
      * <p>Note that the given Tree has to be within the current compilation unit, otherwise null
      * will be returned.
@@ -2904,9 +3098,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
 
         TreePath currentPath = visitorState.getPath();
         if (currentPath == null) {
-            TreePath path = TreePath.getPath(root, node);
-            treePathCache.addPath(node, path);
-            return path;
+            return treePathCache.getPath(root, node);
         }
 
         // This method uses multiple heuristics to avoid calling
@@ -2937,12 +3129,6 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             }
         }
 
-        final TreePath pathWithinSubtree = TreePath.getPath(currentPath, node);
-        if (pathWithinSubtree != null) {
-            treePathCache.addPath(node, pathWithinSubtree);
-            return pathWithinSubtree;
-        }
-
         // climb the current path till we see that
         // Works when getPath called on the enclosing method, enclosing
         // class
@@ -2955,7 +3141,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             current = current.getParentPath();
         }
 
-        // OK, we give up. Use the cache to look up.
+        // Otherwise, climb from the node to the nearest ancestor whose path is cached.
         return treePathCache.getPath(root, node);
     }
 
@@ -3037,22 +3223,25 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         if (this.typesFromStubFiles != null || this.declAnnosFromStubFiles != null) {
             throw new BugInCF("AnnotatedTypeFactory.parseStubFiles called more than once");
         }
+        long startNanos = System.nanoTime();
 
         Map<Element, AnnotatedTypeMirror> typesFromStubFiles = new HashMap<>();
         Map<String, Set<AnnotationMirror>> declAnnosFromStubFiles = new HashMap<>();
 
         // 1. jdk.astub
-        // Only look in .jar files, and parse it right away.
+        // Only look in .jar files.  Parse it right away, but process the declarations of each
+        // type the first time one of its elements is looked up.
         if (!checker.hasOption("ignorejdkastub")) {
             InputStream in = checker.getClass().getResourceAsStream("jdk.astub");
             if (in != null) {
-                StubParser.parse(
-                        checker.getClass().getResource("jdk.astub").toString(),
-                        in,
-                        this,
-                        processingEnv,
-                        typesFromStubFiles,
-                        declAnnosFromStubFiles);
+                jdkStubParser =
+                        StubParser.parseLazily(
+                                checker.getClass().getResource("jdk.astub").toString(),
+                                in,
+                                this,
+                                processingEnv,
+                                typesFromStubFiles,
+                                declAnnosFromStubFiles);
             }
         }
 
@@ -3152,6 +3341,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
 
         this.typesFromStubFiles = typesFromStubFiles;
         this.declAnnosFromStubFiles = declAnnosFromStubFiles;
+
+        CheckerStatistics statistics = checker.getStatistics();
+        if (statistics != null) {
+            statistics.addTime(CheckerStatistics.Phase.STUB_PARSING, startNanos);
+        }
     }
 
     /**
@@ -3280,6 +3474,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             // Found in cache, return result.
             return cacheDeclAnnos.get(elt);
         }
+        processJdkStubFor(elt);
 
         Set<AnnotationMirror> results = AnnotationUtils.createAnnotationSet();
         // Retrieving the annotations from the element.
@@ -3317,7 +3512,9 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             }
 
             // Add the element and its annotations to the cache.
-            cacheDeclAnnos.put(elt, results);
+            if (!processingJdkStub) {
+                cacheDeclAnnos.put(elt, results);
+            }
         }
 
         return results;
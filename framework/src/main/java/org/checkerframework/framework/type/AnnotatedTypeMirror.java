@@ -926,7 +926,7 @@ public abstract class AnnotatedTypeMirror {
 
         @Override
         public List<AnnotatedDeclaredType> directSuperTypes() {
-            return Collections.unmodifiableList(SupertypeFinder.directSuperTypes(this));
+            return Collections.unmodifiableList(atypeFactory.directSuperTypes(this));
         }
 
         @Override
@@ -21,6 +21,7 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedWildcard
 import org.checkerframework.framework.type.visitor.AbstractAtmComboVisitor;
 import org.checkerframework.framework.util.AnnotatedTypes;
 import org.checkerframework.framework.util.AtmCombo;
+import org.checkerframework.framework.util.CheckerStatistics;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.BugInCF;
 import org.checkerframework.javacutil.TypesUtils;
@@ -119,6 +120,13 @@ public class DefaultTypeHierarchy extends AbstractAtmComboVisitor<Boolean, Void>
      */
     protected final StructuralEqualityVisitHistory typeargVisitHistory;
 
+    /**
+     * The number of calls to {@link #isSubtype(AnnotatedTypeMirror, AnnotatedTypeMirror)} that are
+     * in progress. Only the outermost call is timed, and the visit histories are cleared when it
+     * returns.
+     */
+    private int isSubtypeDepth = 0;
+
     /** Creates a DefaultTypeHierarchy. */
     public DefaultTypeHierarchy(
             final BaseTypeChecker checker,
@@ -154,6 +162,36 @@ public class DefaultTypeHierarchy extends AbstractAtmComboVisitor<Boolean, Void>
     @Override
     public boolean isSubtype(
             final AnnotatedTypeMirror subtype, final AnnotatedTypeMirror supertype) {
+        isSubtypeDepth++;
+        try {
+            CheckerStatistics statistics = checker.getStatistics();
+            if (statistics == null || isSubtypeDepth > 1) {
+                // A nested check is already timed by the outermost one.
+                return isSubtypeInAllHierarchies(subtype, supertype);
+            }
+            long startNanos = System.nanoTime();
+            boolean result = isSubtypeInAllHierarchies(subtype, supertype);
+            statistics.addTime(CheckerStatistics.Phase.TYPE_HIERARCHY, startNanos);
+            return result;
+        } finally {
+            isSubtypeDepth--;
+            if (isSubtypeDepth == 0) {
+                // The histories are only needed to stop recursion within one check.
+                visitHistory.clear();
+                typeargVisitHistory.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns true if subtype {@literal <:} supertype in the hierarchy of every top annotation.
+     *
+     * @param subtype expected subtype
+     * @param supertype expected supertype
+     * @return true if subtype is actually a subtype of supertype
+     */
+    private boolean isSubtypeInAllHierarchies(
+            final AnnotatedTypeMirror subtype, final AnnotatedTypeMirror supertype) {
         for (final AnnotationMirror top : qualifierHierarchy.getTopAnnotations()) {
             if (!isSubtype(subtype, supertype, top)) {
                 return false;
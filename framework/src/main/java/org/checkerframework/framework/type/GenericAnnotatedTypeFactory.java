@@ -38,6 +38,7 @@ import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.dataflow.analysis.Analysis;
 import org.checkerframework.dataflow.analysis.AnalysisResult;
 import org.checkerframework.dataflow.analysis.FlowExpressions;
 import org.checkerframework.dataflow.analysis.FlowExpressions.FieldAccess;
@@ -90,6 +91,7 @@ import org.checkerframework.framework.type.typeannotator.ListTypeAnnotator;
 import org.checkerframework.framework.type.typeannotator.PropagationTypeAnnotator;
 import org.checkerframework.framework.type.typeannotator.TypeAnnotator;
 import org.checkerframework.framework.util.AnnotatedTypes;
+import org.checkerframework.framework.util.CheckerStatistics;
 import org.checkerframework.framework.util.FlowExpressionParseUtil;
 import org.checkerframework.framework.util.FlowExpressionParseUtil.FlowExpressionParseException;
 import org.checkerframework.framework.util.defaults.QualifierDefaults;
@@ -214,11 +216,23 @@ public abstract class GenericAnnotatedTypeFactory<
         this.initializationStore = null;
         this.initializationStaticStore = null;
 
+        // The flow results of a subchecker are used by its parent checker after the subchecker has
+        // visited the compilation unit, so they cannot be released.
+        this.streamFlowResults =
+                checker.hasOption("streamFlowResults") && checker.getParentChecker() == null;
+        this.pendingMethods = new IdentityHashMap<>();
+        this.streamedResults = new IdentityHashMap<>();
+        this.currentStreamedResults = null;
+
         this.cfgVisualizer = createCFGVisualizer();
 
         if (shouldCache) {
             int cacheSize = getCacheSize();
-            flowResultAnalysisCaches = CollectionUtils.createLRUCache(cacheSize);
+            CheckerStatistics statistics = checker.getStatistics();
+            flowResultAnalysisCaches =
+                    statistics == null
+                            ? CollectionUtils.createLRUCache(cacheSize)
+                            : statistics.createLRUCache("flowResultAnalysisCaches", cacheSize);
         } else {
             flowResultAnalysisCaches = null;
         }
@@ -240,6 +254,7 @@ public abstract class GenericAnnotatedTypeFactory<
         this.poly = createQualifierPolymorphism();
 
         this.analysis = createFlowAnalysis(new ArrayList<>());
+        this.analysis.setCheckpointInterval(getFlowCheckpointInterval());
         this.transfer = analysis.getTransferFunction();
         this.emptyStore = analysis.createEmptyStore(transfer.usesSequentialSemantics());
 
@@ -259,6 +274,32 @@ public abstract class GenericAnnotatedTypeFactory<
         }
     }
 
+    /**
+     * Performs the flow analysis of {@code methodTree}, if it was deferred until the method is
+     * visited; see {@link #streamFlowResults}.
+     *
+     * @param methodTree the method that is about to be type-checked
+     */
+    @Override
+    public void preProcessMethodTree(MethodTree methodTree) {
+        if (streamFlowResults) {
+            analyzePendingMethod(methodTree);
+        }
+    }
+
+    /**
+     * Releases the flow results of {@code methodTree}, if they were computed when the method was
+     * visited; see {@link #streamFlowResults}.
+     *
+     * @param methodTree the method that has been type-checked
+     */
+    @Override
+    public void postProcessMethodTree(MethodTree methodTree) {
+        if (streamFlowResults) {
+            releaseStreamedResults(methodTree);
+        }
+    }
+
     /**
      * Creates a type factory for checking the given compilation unit with respect to the given
      * annotation.
@@ -279,6 +320,9 @@ public abstract class GenericAnnotatedTypeFactory<
         this.returnStatementStores = null;
         this.initializationStore = null;
         this.initializationStaticStore = null;
+        this.pendingMethods.clear();
+        this.streamedResults.clear();
+        this.currentStreamedResults = null;
 
         if (shouldCache) {
             this.flowResultAnalysisCaches.clear();
@@ -378,6 +422,30 @@ public abstract class GenericAnnotatedTypeFactory<
         return new DefaultQualifierForUseTypeAnnotator(this);
     }
 
+    /**
+     * Returns the int supplied to the checker via the flowCheckpointInterval option or the default
+     * checkpoint interval.
+     *
+     * @return the checkpoint interval passed as argument to the checker or {@link
+     *     Analysis#DEFAULT_CHECKPOINT_INTERVAL}
+     * @see Analysis#setCheckpointInterval(int)
+     */
+    protected int getFlowCheckpointInterval() {
+        String option = checker.getOption("flowCheckpointInterval");
+        if (option == null) {
+            return Analysis.DEFAULT_CHECKPOINT_INTERVAL;
+        }
+        try {
+            int interval = Integer.parseInt(option);
+            if (interval >= 0) {
+                return interval;
+            }
+        } catch (NumberFormatException ex) {
+            // Report the error below.
+        }
+        throw new UserError("flowCheckpointInterval was not a non-negative integer: " + option);
+    }
+
     /**
      * Returns the appropriate flow analysis class that is used for the
      * org.checkerframework.dataflow analysis.
@@ -906,6 +974,88 @@ public abstract class GenericAnnotatedTypeFactory<
      */
     protected IdentityHashMap<MethodInvocationTree, Store> methodInvocationStores;
 
+    /**
+     * Whether the flow analysis of a method is deferred until the visitor reaches the method, and
+     * its results are released once the visitor leaves it. Otherwise, all methods of a top-level
+     * class are analyzed before the class is visited, and their results are kept until the end of
+     * the compilation unit. Set by the -AstreamFlowResults option.
+     *
+     * <p>The results of field initializers and initializer blocks are always computed up front and
+     * kept, because the analysis of constructors and the checking of field initialization use them.
+     */
+    private final boolean streamFlowResults;
+
+    /**
+     * The methods whose flow analysis is deferred until they are visited, with everything that is
+     * needed to analyze them. Only used if {@link #streamFlowResults} is true.
+     */
+    private final Map<MethodTree, PendingMethod> pendingMethods;
+
+    /**
+     * The flow results of the methods that are being visited, which are released once the visitor
+     * leaves the method. Only used if {@link #streamFlowResults} is true.
+     */
+    private final Map<MethodTree, StreamedResults> streamedResults;
+
+    /** The results of the flow analysis of the method that is being analyzed, or null. */
+    private @Nullable StreamedResults currentStreamedResults;
+
+    /** A method whose flow analysis is deferred until it is visited. */
+    private class PendingMethod {
+        /** The method. */
+        final CFGMethod method;
+        /** The top-level class that the method belongs to. */
+        final ClassTree topLevelClass;
+        /** The abstract values of final fields with initializers. */
+        final List<Pair<VariableElement, Value>> fieldValues;
+        /** The store for captured variables, or null. */
+        final @Nullable Store capturedStore;
+        /** The initialization store of the class of the method, or null. */
+        final @Nullable Store initializationStore;
+        /** The static initialization store of the class of the method, or null. */
+        final @Nullable Store initializationStaticStore;
+
+        /**
+         * Creates a PendingMethod.
+         *
+         * @param method the method
+         * @param topLevelClass the top-level class that the method belongs to
+         * @param fieldValues the abstract values of final fields with initializers
+         * @param capturedStore the store for captured variables, or null
+         * @param initializationStore the initialization store of the class of the method, or null
+         * @param initializationStaticStore the static initialization store of the class of the
+         *     method, or null
+         */
+        PendingMethod(
+                CFGMethod method,
+                ClassTree topLevelClass,
+                List<Pair<VariableElement, Value>> fieldValues,
+                @Nullable Store capturedStore,
+                @Nullable Store initializationStore,
+                @Nullable Store initializationStaticStore) {
+            this.method = method;
+            this.topLevelClass = topLevelClass;
+            this.fieldValues = fieldValues;
+            this.capturedStore = capturedStore;
+            this.initializationStore = initializationStore;
+            this.initializationStaticStore = initializationStaticStore;
+        }
+    }
+
+    /**
+     * The flow results that were computed for one method: the results of the method, and of the
+     * lambdas and classes declared in it.
+     */
+    private class StreamedResults {
+        /** The analysis results that were combined into {@link #flowResult}. */
+        final List<AnalysisResult<Value, Store>> results = new ArrayList<>();
+        /**
+         * The trees whose entries in {@link #regularExitStores} and {@link #returnStatementStores}
+         * were added.
+         */
+        final List<Tree> exitStoreTrees = new ArrayList<>();
+    }
+
     /**
      * Returns the regular exit store for a method or another code block (such as static
      * initializers).
@@ -991,6 +1141,9 @@ public abstract class GenericAnnotatedTypeFactory<
 
     /** @return the store immediately after a given {@link Node}. */
     public Store getStoreAfter(Node node) {
+        if (!analysis.isRunning()) {
+            return flowResult.getStoreAfter(node);
+        }
         Store res =
                 AnalysisResult.runAnalysisFor(
                         node,
@@ -1062,6 +1215,21 @@ public abstract class GenericAnnotatedTypeFactory<
         // No captured store for top-level classes.
         queue.add(Pair.of(classTree, null));
 
+        analyzeClasses(queue, fieldValues, classTree);
+    }
+
+    /**
+     * Perform a org.checkerframework.dataflow analysis over the classes in {@code queue}, and the
+     * classes declared in them.
+     *
+     * @param queue the classes to analyze, with their stores for captured variables
+     * @param fieldValues the abstract values of final fields with initializers
+     * @param classTree the top-level class
+     */
+    private void analyzeClasses(
+            Queue<Pair<ClassTree, Store>> queue,
+            List<Pair<VariableElement, Value>> fieldValues,
+            ClassTree classTree) {
         while (!queue.isEmpty()) {
             final Pair<ClassTree, Store> qel = queue.remove();
             final ClassTree ct = qel.first;
@@ -1168,6 +1336,19 @@ public abstract class GenericAnnotatedTypeFactory<
                 // TODO: at this point, we don't have any information about
                 // fields of superclasses.
                 for (CFGMethod met : methods) {
+                    if (streamFlowResults) {
+                        // Wait with scanning the method until it is visited.
+                        pendingMethods.put(
+                                met.getMethod(),
+                                new PendingMethod(
+                                        met,
+                                        classTree,
+                                        fieldValues,
+                                        capturedStore,
+                                        initializationStore,
+                                        initializationStaticStore));
+                        continue;
+                    }
                     analyze(
                             queue,
                             lambdaQueue,
@@ -1203,6 +1384,9 @@ public abstract class GenericAnnotatedTypeFactory<
                 } else {
                     regularExitStores.put(ct, initializationStaticStore);
                 }
+                if (currentStreamedResults != null) {
+                    currentStreamedResults.exitStoreTrees.add(ct);
+                }
             } finally {
                 visitorState.setPath(preTreePath);
                 visitorState.setClassType(preClassType);
@@ -1235,7 +1419,13 @@ public abstract class GenericAnnotatedTypeFactory<
             boolean updateInitializationStore,
             boolean isStatic,
             Store capturedStore) {
+        CheckerStatistics statistics = checker.getStatistics();
+        long startNanos = System.nanoTime();
         ControlFlowGraph cfg = CFCFGBuilder.build(root, ast, checker, this, processingEnv);
+        if (statistics != null) {
+            statistics.addTime(CheckerStatistics.Phase.CFG_CONSTRUCTION, startNanos);
+            startNanos = System.nanoTime();
+        }
 
         if (isInitializationCode) {
             Store initStore = !isStatic ? initializationStore : initializationStaticStore;
@@ -1251,14 +1441,23 @@ public abstract class GenericAnnotatedTypeFactory<
             transfer.setFixedInitialStore(capturedStore);
         }
         analysis.performAnalysis(cfg, fieldValues);
+        if (statistics != null) {
+            statistics.addTime(CheckerStatistics.Phase.FLOW_ANALYSIS, startNanos);
+        }
         AnalysisResult<Value, Store> result = analysis.getResult();
 
         // store result
         flowResult.combine(result);
+        if (currentStreamedResults != null) {
+            currentStreamedResults.results.add(result);
+        }
         if (ast.getKind() == UnderlyingAST.Kind.METHOD) {
             // store exit store (for checking postconditions)
             CFGMethod mast = (CFGMethod) ast;
             MethodTree method = mast.getMethod();
+            if (currentStreamedResults != null) {
+                currentStreamedResults.exitStoreTrees.add(method);
+            }
             Store regularExitStore = analysis.getRegularExitStore();
             if (regularExitStore != null) {
                 regularExitStores.put(method, regularExitStore);
@@ -1266,6 +1465,9 @@ public abstract class GenericAnnotatedTypeFactory<
             returnStatementStores.put(method, analysis.getReturnStatementStores());
         } else if (ast.getKind() == UnderlyingAST.Kind.ARBITRARY_CODE) {
             CFGStatement block = (CFGStatement) ast;
+            if (currentStreamedResults != null) {
+                currentStreamedResults.exitStoreTrees.add(block.getCode());
+            }
             Store regularExitStore = analysis.getRegularExitStore();
             if (regularExitStore != null) {
                 regularExitStores.put(block.getCode(), regularExitStore);
@@ -1274,6 +1476,9 @@ public abstract class GenericAnnotatedTypeFactory<
             // TODO: Postconditions?
 
             CFGLambda block = (CFGLambda) ast;
+            if (currentStreamedResults != null) {
+                currentStreamedResults.exitStoreTrees.add(block.getCode());
+            }
             Store regularExitStore = analysis.getRegularExitStore();
             if (regularExitStore != null) {
                 regularExitStores.put(block.getCode(), regularExitStore);
@@ -1304,6 +1509,116 @@ public abstract class GenericAnnotatedTypeFactory<
         }
     }
 
+    /**
+     * Analyzes a method whose flow analysis was deferred until it is visited, together with the
+     * lambdas and classes declared in it. The results are kept until {@link
+     * #releaseStreamedResults} is called for the method.
+     *
+     * @param methodTree a method that is about to be visited
+     */
+    private void analyzePendingMethod(MethodTree methodTree) {
+        PendingMethod pending = pendingMethods.remove(methodTree);
+        if (pending == null) {
+            // The method has no body, or it has been analyzed already.
+            return;
+        }
+        StreamedResults preStreamedResults = currentStreamedResults;
+        Store preInitializationStore = initializationStore;
+        Store preInitializationStaticStore = initializationStaticStore;
+
+        StreamedResults results = new StreamedResults();
+        currentStreamedResults = results;
+        try {
+            Queue<Pair<ClassTree, Store>> queue = new ArrayDeque<>();
+            analyzeMethodAndLambdas(pending, queue);
+            // Classes declared in the method are visited as part of the method.
+            analyzeClasses(queue, pending.fieldValues, pending.topLevelClass);
+        } finally {
+            initializationStore = preInitializationStore;
+            initializationStaticStore = preInitializationStaticStore;
+            currentStreamedResults = preStreamedResults;
+        }
+        streamedResults.put(methodTree, results);
+    }
+
+    /**
+     * Analyzes a pending method and the lambdas declared in it.
+     *
+     * @param pending a method whose flow analysis was deferred
+     * @param queue the queue to add the classes declared in the method to
+     */
+    private void analyzeMethodAndLambdas(
+            PendingMethod pending, Queue<Pair<ClassTree, Store>> queue) {
+        TreePath preTreePath = visitorState.getPath();
+        AnnotatedDeclaredType preClassType = visitorState.getClassType();
+        ClassTree preClassTree = visitorState.getClassTree();
+        AnnotatedDeclaredType preAMT = visitorState.getMethodReceiver();
+        MethodTree preMT = visitorState.getMethodTree();
+
+        try {
+            ClassTree ct = pending.method.getClassTree();
+            // This is called once per method, so use the cached paths rather than scanning the
+            // compilation unit with TreePath.getPath.
+            visitorState.setPath(getPath(ct));
+            visitorState.setClassType(getAnnotatedType(TreeUtils.elementFromDeclaration(ct)));
+            visitorState.setClassTree(ct);
+            visitorState.setMethodReceiver(null);
+            visitorState.setMethodTree(null);
+            initializationStore = pending.initializationStore;
+            initializationStaticStore = pending.initializationStaticStore;
+
+            Queue<Pair<LambdaExpressionTree, Store>> lambdaQueue = new ArrayDeque<>();
+            analyze(
+                    queue,
+                    lambdaQueue,
+                    pending.method,
+                    pending.fieldValues,
+                    pending.topLevelClass,
+                    TreeUtils.isConstructor(pending.method.getMethod()),
+                    false,
+                    false,
+                    pending.capturedStore);
+            while (!lambdaQueue.isEmpty()) {
+                Pair<LambdaExpressionTree, Store> lambdaPair = lambdaQueue.poll();
+                analyze(
+                        queue,
+                        lambdaQueue,
+                        new CFGLambda(lambdaPair.first),
+                        pending.fieldValues,
+                        pending.topLevelClass,
+                        false,
+                        false,
+                        false,
+                        lambdaPair.second);
+            }
+        } finally {
+            visitorState.setPath(preTreePath);
+            visitorState.setClassType(preClassType);
+            visitorState.setClassTree(preClassTree);
+            visitorState.setMethodReceiver(preAMT);
+            visitorState.setMethodTree(preMT);
+        }
+    }
+
+    /**
+     * Releases the flow results that {@link #analyzePendingMethod} computed for a method.
+     *
+     * @param methodTree a method that has been visited
+     */
+    private void releaseStreamedResults(MethodTree methodTree) {
+        StreamedResults results = streamedResults.remove(methodTree);
+        if (results == null) {
+            return;
+        }
+        for (AnalysisResult<Value, Store> result : results.results) {
+            flowResult.remove(result);
+        }
+        for (Tree tree : results.exitStoreTrees) {
+            regularExitStores.remove(tree);
+            returnStatementStores.remove(tree);
+        }
+    }
+
     /**
      * Handle the visualization of the CFG, by calling {@code visualizeCFG} on the analysis. This
      * method gets invoked in {@code analyze} if one of the visualization options is provided.
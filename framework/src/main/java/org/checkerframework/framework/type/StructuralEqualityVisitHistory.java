@@ -66,4 +66,10 @@ public class StructuralEqualityVisitHistory {
         }
         return null;
     }
+
+    /** Removes all results from the history. */
+    public void clear() {
+        trueHistory.clear();
+        falseHistory.clear();
+    }
 }
@@ -20,8 +20,11 @@ import org.checkerframework.javacutil.Pair;
  * but with a different supertype. For example, if the two types are {@code @A T extends @B
  * Serializable<T>} and {@code @C Serializable<?>}, then isSubtype is first called one those types
  * and then on {@code @B Serializable<T>} and {@code @C Serializable<?>}.
+ *
+ * <p>{@link DefaultTypeHierarchy} clears the history after each top-level subtype check, so the
+ * history does not grow without bound and does not hold types that were modified after they were
+ * added.
  */
-// TODO: do we need to clear the history sometimes?
 public class SubtypeVisitHistory {
 
     /**
@@ -87,6 +90,11 @@ public class SubtypeVisitHistory {
         return hit != null && hit.contains(currentTop);
     }
 
+    /** Removes all visits from the history. */
+    public void clear() {
+        visited.clear();
+    }
+
     @Override
     public String toString() {
         return "VisitHistory( " + visited + " )";
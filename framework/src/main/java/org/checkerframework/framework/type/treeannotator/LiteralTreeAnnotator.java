@@ -5,14 +5,17 @@ import com.sun.source.tree.Tree;
 import com.sun.source.tree.Tree.Kind;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.lang.model.element.AnnotationMirror;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.qual.LiteralKind;
 import org.checkerframework.framework.qual.QualifierForLiterals;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
@@ -22,6 +25,7 @@ import org.checkerframework.framework.type.QualifierHierarchy;
 import org.checkerframework.framework.type.typeannotator.DefaultForTypeAnnotator;
 import org.checkerframework.javacutil.AnnotationBuilder;
 import org.checkerframework.javacutil.BugInCF;
+import org.checkerframework.javacutil.CollectionUtils;
 
 /**
  * Adds annotations to a type based on the contents of a tree. This class applies annotations
@@ -46,6 +50,44 @@ public class LiteralTreeAnnotator extends TreeAnnotator {
     private final Map<Class<?>, Set<AnnotationMirror>> treeClasses;
     private final Map<Pattern, Set<AnnotationMirror>> stringPatterns;
 
+    /**
+     * All of the {@link #stringPatterns} that do not contain a back reference, combined into one
+     * pattern that determines in a single match which of them match a string. Null if it has not
+     * been computed since the last string pattern was added.
+     *
+     * <p>For patterns p1, ..., pn, the combined pattern is {@code
+     * (?=((?:p1)\z))?...(?=((?:pn)\z))?}. Each optional lookahead matches, and captures its group,
+     * exactly when its pattern matches the whole string. A back reference would refer to the wrong
+     * group of the combined pattern, so patterns that contain one are matched separately, in {@link
+     * #separatePatterns}.
+     */
+    private @Nullable Pattern combinedPattern;
+
+    /** The patterns in {@link #combinedPattern}, in order. */
+    private final List<Pattern> combinedPatterns = new ArrayList<>();
+
+    /**
+     * The index of the capturing group of {@link #combinedPattern} for each element of {@link
+     * #combinedPatterns}.
+     */
+    private final List<Integer> combinedGroups = new ArrayList<>();
+
+    /** The patterns that are not in {@link #combinedPattern}. */
+    private final List<Pattern> separatePatterns = new ArrayList<>();
+
+    /** Matches a numbered or named back reference in a regular expression. */
+    private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\([1-9]|k<)");
+
+    /** The size of {@link #stringLiteralCache}. */
+    private static final int STRING_LITERAL_CACHE_SIZE = 300;
+
+    /**
+     * Maps the value of a string literal to the greatest lower bound of the qualifiers of the
+     * string patterns that it matches, or to the empty set if it matches none.
+     */
+    private final Map<String, Set<? extends AnnotationMirror>> stringLiteralCache =
+            CollectionUtils.createLRUCache(STRING_LITERAL_CACHE_SIZE);
+
     protected final QualifierHierarchy qualHierarchy;
 
     /**
@@ -194,6 +236,28 @@ public class LiteralTreeAnnotator extends TreeAnnotator {
                             + " with "
                             + theQual);
         }
+        combinedPattern = null;
+        stringLiteralCache.clear();
+    }
+
+    /** Combines the string patterns into {@link #combinedPattern}. */
+    private void combineStringPatterns() {
+        combinedPatterns.clear();
+        combinedGroups.clear();
+        separatePatterns.clear();
+        StringBuilder combined = new StringBuilder();
+        int group = 1;
+        for (Pattern pattern : stringPatterns.keySet()) {
+            if (BACK_REFERENCE.matcher(pattern.pattern()).find()) {
+                separatePatterns.add(pattern);
+                continue;
+            }
+            combined.append("(?=((?:").append(pattern.pattern()).append(")\\z))?");
+            combinedPatterns.add(pattern);
+            combinedGroups.add(group);
+            group += 1 + pattern.matcher("").groupCount();
+        }
+        combinedPattern = Pattern.compile(combined.toString());
     }
 
     @Override
@@ -231,40 +295,73 @@ public class LiteralTreeAnnotator extends TreeAnnotator {
     @Override
     public Void visitLiteral(LiteralTree tree, AnnotatedTypeMirror type) {
         if (!stringPatterns.isEmpty() && tree.getKind() == Kind.STRING_LITERAL) {
-            List<Set<? extends AnnotationMirror>> matches = new ArrayList<>();
-            List<Set<? extends AnnotationMirror>> nonMatches = new ArrayList<>();
-
             String string = (String) tree.getValue();
-            for (Pattern pattern : stringPatterns.keySet()) {
-                Set<AnnotationMirror> sam = stringPatterns.get(pattern);
-                if (pattern.matcher(string).matches()) {
-                    matches.add(sam);
-                } else {
-                    nonMatches.add(sam);
-                }
+            Set<? extends AnnotationMirror> res = stringLiteralCache.get(string);
+            if (res == null) {
+                res = qualifiersForString(string);
+                stringLiteralCache.put(string, res);
             }
-            if (!matches.isEmpty()) {
-                Set<? extends AnnotationMirror> res = matches.get(0);
-                for (Set<? extends AnnotationMirror> sam : matches) {
-                    res = qualHierarchy.greatestLowerBounds(res, sam);
-                }
-                // Verify that res is not a subtype of any type in nonMatches
-                for (Set<? extends AnnotationMirror> sam : nonMatches) {
-                    if (qualHierarchy.isSubtype(res, sam)) {
-                        throw new BugInCF(
-                                String.join(
-                                        System.lineSeparator(),
-                                        "Bug in @QualifierForLiterals(stringpatterns=...) in type hierarchy definition:",
-                                        " inferred type for \"" + string + "\" is " + res,
-                                        " which is a subtype of " + sam,
-                                        " but its pattern does not match the string.",
-                                        "  matches = " + matches,
-                                        "  nonMatches = " + nonMatches));
-                    }
-                }
+            if (!res.isEmpty()) {
                 type.addAnnotations(res);
             }
         }
         return super.visitLiteral(tree, type);
     }
+
+    /**
+     * Returns the greatest lower bound of the qualifiers of the string patterns that match the
+     * given string.
+     *
+     * @param string the value of a string literal
+     * @return the greatest lower bound of the qualifiers of the matching string patterns, or the
+     *     empty set if no pattern matches
+     */
+    private Set<? extends AnnotationMirror> qualifiersForString(String string) {
+        if (combinedPattern == null) {
+            combineStringPatterns();
+        }
+        List<Set<? extends AnnotationMirror>> matches = new ArrayList<>();
+        List<Set<? extends AnnotationMirror>> nonMatches = new ArrayList<>();
+
+        Matcher matcher = combinedPattern.matcher(string);
+        matcher.lookingAt();
+        for (int i = 0; i < combinedPatterns.size(); i++) {
+            Set<AnnotationMirror> sam = stringPatterns.get(combinedPatterns.get(i));
+            if (matcher.start(combinedGroups.get(i)) != -1) {
+                matches.add(sam);
+            } else {
+                nonMatches.add(sam);
+            }
+        }
+        for (Pattern pattern : separatePatterns) {
+            Set<AnnotationMirror> sam = stringPatterns.get(pattern);
+            if (pattern.matcher(string).matches()) {
+                matches.add(sam);
+            } else {
+                nonMatches.add(sam);
+            }
+        }
+        if (matches.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<? extends AnnotationMirror> res = matches.get(0);
+        for (Set<? extends AnnotationMirror> sam : matches) {
+            res = qualHierarchy.greatestLowerBounds(res, sam);
+        }
+        // Verify that res is not a subtype of any type in nonMatches
+        for (Set<? extends AnnotationMirror> sam : nonMatches) {
+            if (qualHierarchy.isSubtype(res, sam)) {
+                throw new BugInCF(
+                        String.join(
+                                System.lineSeparator(),
+                                "Bug in @QualifierForLiterals(stringpatterns=...) in type hierarchy definition:",
+                                " inferred type for \"" + string + "\" is " + res,
+                                " which is a subtype of " + sam,
+                                " but its pattern does not match the string.",
+                                "  matches = " + matches,
+                                "  nonMatches = " + nonMatches));
+            }
+        }
+        return res;
+    }
 }
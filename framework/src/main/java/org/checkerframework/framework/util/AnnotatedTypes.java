@@ -603,16 +603,38 @@ public class AnnotatedTypes {
      * A utility method that takes a Method element and returns a set of all elements that this
      * method overrides (as {@link ExecutableElement}s).
      *
+     * <p>The overridden methods are looked up in the factory's {@link OverrideIndex}, so the
+     * annotated supertypes of the method's class are only computed if the method overrides
+     * something.
+     *
      * @param method the overriding method
      * @return an unmodifiable set of {@link ExecutableElement}s representing the elements that
      *     method overrides
      */
     public static Map<AnnotatedDeclaredType, ExecutableElement> overriddenMethods(
             Elements elements, AnnotatedTypeFactory atypeFactory, ExecutableElement method) {
+        OverrideIndex index = atypeFactory.getOverrideIndex();
+        Map<TypeElement, ExecutableElement> overridden = index.getOverriddenMethods(method);
+        if (overridden.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
         final TypeElement elem = (TypeElement) method.getEnclosingElement();
         final AnnotatedDeclaredType type = atypeFactory.getAnnotatedType(elem);
-        final Collection<AnnotatedDeclaredType> supertypes = getSuperTypes(type);
-        return overriddenMethods(elements, method, supertypes);
+        final Set<TypeElement> indexedSupertypes = index.getSuperTypes(elem);
+
+        Map<AnnotatedDeclaredType, ExecutableElement> overrides = new LinkedHashMap<>();
+        for (AnnotatedDeclaredType supertype : getSuperTypes(type)) {
+            TypeElement superElement = (TypeElement) supertype.getUnderlyingType().asElement();
+            ExecutableElement supermethod =
+                    indexedSupertypes.contains(superElement)
+                            ? overridden.get(superElement)
+                            : index.findOverriddenMethod(method, superElement);
+            if (supermethod != null) {
+                overrides.put(supertype, supermethod);
+            }
+        }
+        return Collections.unmodifiableMap(overrides);
     }
 
     /**
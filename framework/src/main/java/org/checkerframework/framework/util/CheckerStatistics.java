@@ -0,0 +1,249 @@
+package org.checkerframework.framework.util;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.javacutil.UserError;
+
+/**
+ * Collects the time that one checker spends in each phase of type-checking, and the hit rate of its
+ * caches, separately for each top-level class. A checker collects statistics only if the {@code
+ * -AperformanceStats=file} command-line option is passed; the statistics of a checker and all of
+ * its subcheckers are written to {@code file} when type-processing is over.
+ *
+ * <p>The report is a CSV file, or a JSON file if {@code file} ends with ".json". Each row of the
+ * CSV file, or each object of the JSON array, has the following fields:
+ *
+ * <ul>
+ *   <li>{@code checker}: the simple name of the checker class
+ *   <li>{@code class}: the qualified name of the top-level class, or {@value #NO_CLASS} for work
+ *       done before the first class is type-checked
+ *   <li>{@code kind}: {@code time} or {@code cache}
+ *   <li>{@code name}: the {@link Phase} or the name of the cache
+ *   <li>{@code count}: the number of times the phase was entered, or the number of cache lookups
+ *   <li>{@code value}: the nanoseconds spent in the phase, or the number of cache hits
+ * </ul>
+ *
+ * Phases nest: for example, the time spent in {@link Phase#FLOW_ANALYSIS} is also part of the time
+ * spent in {@link Phase#VISIT}, and {@link Phase#TYPE_HIERARCHY} time is part of both.
+ */
+public class CheckerStatistics {
+
+    /** The class name used for work that is not done on behalf of a top-level class. */
+    public static final String NO_CLASS = "<none>";
+
+    /** The phases whose duration is measured. */
+    public enum Phase {
+        /** Parsing stub files. */
+        STUB_PARSING,
+        /** Building control flow graphs. */
+        CFG_CONSTRUCTION,
+        /** Running dataflow analysis on control flow graphs. */
+        FLOW_ANALYSIS,
+        /** Visiting the trees of a top-level class, including everything done on demand. */
+        VISIT,
+        /** Checking subtyping between annotated types. */
+        TYPE_HIERARCHY
+    }
+
+    /** A count and a total. */
+    private static class Counter {
+        /** The number of events. */
+        long count;
+        /** The sum of the values of all events. */
+        long value;
+    }
+
+    /** The simple name of the checker. */
+    private final String checkerName;
+
+    /** The top-level class that is currently being type-checked. */
+    private String currentClass = NO_CLASS;
+
+    /** The time spent in each phase, by top-level class. */
+    private final Map<String, Map<Phase, Counter>> times = new LinkedHashMap<>();
+
+    /** The lookups and hits of each cache, by top-level class. */
+    private final Map<String, Map<String, Counter>> caches = new LinkedHashMap<>();
+
+    /**
+     * Creates an empty set of statistics.
+     *
+     * @param checkerName the simple name of the checker whose statistics are collected
+     */
+    public CheckerStatistics(String checkerName) {
+        this.checkerName = checkerName;
+    }
+
+    /**
+     * Sets the top-level class to which subsequent measurements are attributed.
+     *
+     * @param className the qualified name of the top-level class
+     */
+    public void setCurrentClass(String className) {
+        this.currentClass = className;
+    }
+
+    /**
+     * Records that the given phase ran from {@code startNanos} until now. {@code startNanos} must
+     * be a value returned by {@link System#nanoTime()}.
+     *
+     * @param phase the phase that ran
+     * @param startNanos the time at which the phase started
+     */
+    public void addTime(Phase phase, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        Counter counter =
+                times.computeIfAbsent(currentClass, k -> new LinkedHashMap<>())
+                        .computeIfAbsent(phase, k -> new Counter());
+        counter.count++;
+        counter.value += elapsed;
+    }
+
+    /**
+     * Records a lookup in a cache.
+     *
+     * @param cacheName the name of the cache
+     * @param hit whether the cache contained the key
+     */
+    public void countCacheLookup(String cacheName, boolean hit) {
+        Counter counter =
+                caches.computeIfAbsent(currentClass, k -> new LinkedHashMap<>())
+                        .computeIfAbsent(cacheName, k -> new Counter());
+        counter.count++;
+        if (hit) {
+            counter.value++;
+        }
+    }
+
+    /**
+     * Creates an LRU cache like {@link
+     * org.checkerframework.javacutil.CollectionUtils#createLRUCache} that records each call to
+     * {@code get} as a lookup, and each non-null result as a hit.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @param cacheName the name of the cache in the report
+     * @param size the maximum number of entries
+     * @return a new, empty cache
+     */
+    public <K, V> Map<K, V> createLRUCache(final String cacheName, final int size) {
+        return new LinkedHashMap<K, V>(size, .75F, true) {
+
+            private static final long serialVersionUID = 6402861453389624725L;
+
+            @Override
+            public V get(Object key) {
+                V result = super.get(key);
+                countCacheLookup(cacheName, result != null);
+                return result;
+            }
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> entry) {
+                return size() > size;
+            }
+        };
+    }
+
+    /**
+     * Writes the statistics of the given checkers to a file.
+     *
+     * @param statistics the statistics to write
+     * @param fileName the file to write; JSON if it ends with ".json", CSV otherwise
+     */
+    public static void write(List<CheckerStatistics> statistics, String fileName) {
+        boolean json = fileName.endsWith(".json");
+        try (PrintWriter out = new PrintWriter(new FileWriter(fileName))) {
+            if (json) {
+                out.println("[");
+            } else {
+                out.println("checker,class,kind,name,count,value");
+            }
+            boolean first = true;
+            for (CheckerStatistics stats : statistics) {
+                for (Map.Entry<String, Map<Phase, Counter>> classEntry : stats.times.entrySet()) {
+                    for (Map.Entry<Phase, Counter> entry : classEntry.getValue().entrySet()) {
+                        stats.writeRow(
+                                out,
+                                json,
+                                first,
+                                classEntry.getKey(),
+                                "time",
+                                entry.getKey().toString(),
+                                entry.getValue());
+                        first = false;
+                    }
+                }
+                for (Map.Entry<String, Map<String, Counter>> classEntry : stats.caches.entrySet()) {
+                    for (Map.Entry<String, Counter> entry : classEntry.getValue().entrySet()) {
+                        stats.writeRow(
+                                out,
+                                json,
+                                first,
+                                classEntry.getKey(),
+                                "cache",
+                                entry.getKey(),
+                                entry.getValue());
+                        first = false;
+                    }
+                }
+            }
+            if (json) {
+                out.println();
+                out.println("]");
+            }
+        } catch (IOException e) {
+            throw new UserError(
+                    "Problem while writing file: "
+                            + fileName
+                            + ". Exception message: "
+                            + e.getMessage(),
+                    e);
+        }
+    }
+
+    /**
+     * Writes one measurement as a CSV row or a JSON object.
+     *
+     * @param out where to write
+     * @param json whether to write JSON rather than CSV
+     * @param first whether this is the first measurement written
+     * @param className the top-level class of the measurement
+     * @param kind {@code time} or {@code cache}
+     * @param name the phase or cache name
+     * @param counter the measurement
+     */
+    private void writeRow(
+            PrintWriter out,
+            boolean json,
+            boolean first,
+            String className,
+            String kind,
+            String name,
+            Counter counter) {
+        if (json) {
+            if (!first) {
+                out.println(",");
+            }
+            out.print(
+                    String.format(
+                            "  {\"checker\": \"%s\", \"class\": \"%s\", \"kind\": \"%s\","
+                                    + " \"name\": \"%s\", \"count\": %d, \"value\": %d}",
+                            checkerName, className, kind, name, counter.count, counter.value));
+        } else {
+            out.println(
+                    String.join(
+                            ",",
+                            checkerName,
+                            className,
+                            kind,
+                            name,
+                            Long.toString(counter.count),
+                            Long.toString(counter.value)));
+        }
+    }
+}
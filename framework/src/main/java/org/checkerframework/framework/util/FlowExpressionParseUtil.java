@@ -275,7 +275,7 @@ public class FlowExpressionParseUtil {
         @Override
         public Receiver visit(NameExpr expr, FlowExpressionContext context) {
             String s = expr.getNameAsString();
-            Resolver resolver = new Resolver(env);
+            Resolver resolver = Resolver.instance(env);
             if (!context.parsingMember && s.startsWith(PARMETER_REPLACEMENT)) {
                 // A parameter is a local variable, but it can be referenced outside of local scope
                 // using the special #NN syntax.
@@ -359,7 +359,7 @@ public class FlowExpressionParseUtil {
         @Override
         public Receiver visit(MethodCallExpr expr, FlowExpressionContext context) {
             String s = expr.toString();
-            Resolver resolver = new Resolver(env);
+            Resolver resolver = Resolver.instance(env);
 
             // methods with scope (receiver expression) need to change the parsing context so that
             // identifiers are resolved with respect to the receiver.
@@ -477,7 +477,7 @@ public class FlowExpressionParseUtil {
          */
         @Override
         public Receiver visit(FieldAccessExpr expr, FlowExpressionContext context) {
-            Resolver resolver = new Resolver(env);
+            Resolver resolver = Resolver.instance(env);
 
             Symbol.PackageSymbol packageSymbol =
                     resolver.findPackage(expr.getScope().toString(), path);
@@ -0,0 +1,172 @@
+package org.checkerframework.framework.util;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Maps each method to the methods that it overrides, keyed by the class or interface that declares
+ * the overridden method. The index is built once per class, for all methods of the class at once,
+ * the first time one of its methods is queried.
+ *
+ * <p>The index contains only elements, no annotated types, so one instance is shared by a checker
+ * and all of its subcheckers for the whole compilation; see {@link
+ * org.checkerframework.common.basetype.BaseTypeChecker#getOverrideIndex()}. {@link
+ * AnnotatedTypes#overriddenMethods(Elements,
+ * org.checkerframework.framework.type.AnnotatedTypeFactory, ExecutableElement)} uses it to pair the
+ * overridden methods with the annotated supertypes of a particular type factory.
+ */
+public class OverrideIndex {
+
+    /** The element utilities. */
+    private final Elements elements;
+
+    /** The type utilities. */
+    private final Types types;
+
+    /** The classes and interfaces that have been indexed, mapped to all of their supertypes. */
+    private final Map<TypeElement, Set<TypeElement>> supertypes = new HashMap<>();
+
+    /**
+     * Maps each method of an indexed class to the methods that it overrides, keyed by their
+     * declaring class. Methods that override nothing map to an empty map.
+     */
+    private final Map<ExecutableElement, Map<TypeElement, ExecutableElement>> overrides =
+            new HashMap<>();
+
+    /**
+     * Creates an empty index.
+     *
+     * @param elements the element utilities
+     * @param types the type utilities
+     */
+    public OverrideIndex(Elements elements, Types types) {
+        this.elements = elements;
+        this.types = types;
+    }
+
+    /**
+     * Returns all the supertypes of the given class or interface.
+     *
+     * @param type a class or interface
+     * @return all the supertypes of {@code type}, excluding {@code type} itself
+     */
+    public Set<TypeElement> getSuperTypes(TypeElement type) {
+        index(type);
+        return supertypes.get(type);
+    }
+
+    /**
+     * Returns the methods that {@code method} overrides, keyed by the class or interface that
+     * declares them.
+     *
+     * @param method a method
+     * @return the methods that {@code method} overrides, keyed by their declaring class; empty if
+     *     {@code method} overrides nothing
+     */
+    public Map<TypeElement, ExecutableElement> getOverriddenMethods(ExecutableElement method) {
+        Map<TypeElement, ExecutableElement> result = overrides.get(method);
+        if (result == null) {
+            Element enclosing = method.getEnclosingElement();
+            if (!(enclosing instanceof TypeElement)) {
+                return Collections.emptyMap();
+            }
+            index((TypeElement) enclosing);
+            result = overrides.get(method);
+            if (result == null) {
+                // The method is not a member of its class, which should not happen.
+                return Collections.emptyMap();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Indexes the given class or interface and all of its methods, if that has not been done yet.
+     *
+     * @param type a class or interface
+     */
+    private void index(TypeElement type) {
+        if (supertypes.containsKey(type)) {
+            return;
+        }
+        Set<TypeElement> allSupertypes = computeSuperTypes(type);
+        supertypes.put(type, allSupertypes);
+
+        List<ExecutableElement> methods = ElementFilter.methodsIn(type.getEnclosedElements());
+        for (ExecutableElement method : methods) {
+            Map<TypeElement, ExecutableElement> overridden = new LinkedHashMap<>();
+            for (TypeElement superElement : allSupertypes) {
+                @Nullable
+                ExecutableElement supermethod = findOverriddenMethod(method, superElement);
+                if (supermethod != null) {
+                    overridden.put(superElement, supermethod);
+                }
+            }
+            overrides.put(
+                    method,
+                    overridden.isEmpty()
+                            ? Collections.emptyMap()
+                            : Collections.unmodifiableMap(overridden));
+        }
+    }
+
+    /**
+     * Returns the first method declared in {@code superElement} that {@code method} overrides.
+     *
+     * @param method a method
+     * @param superElement a supertype of the class that declares {@code method}
+     * @return the method of {@code superElement} that {@code method} overrides, or null
+     */
+    public @Nullable ExecutableElement findOverriddenMethod(
+            ExecutableElement method, TypeElement superElement) {
+        for (ExecutableElement supermethod :
+                ElementFilter.methodsIn(superElement.getEnclosedElements())) {
+            if (elements.overrides(method, supermethod, superElement)) {
+                return supermethod;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Computes all the supertypes of the given class or interface by walking its direct supertypes.
+     *
+     * @param type a class or interface
+     * @return all the supertypes of {@code type}, excluding {@code type} itself
+     */
+    private Set<TypeElement> computeSuperTypes(TypeElement type) {
+        Set<TypeElement> result = new LinkedHashSet<>();
+        Deque<TypeMirror> stack = new ArrayDeque<>();
+        stack.push(type.asType());
+        while (!stack.isEmpty()) {
+            TypeMirror current = stack.pop();
+            for (TypeMirror supertype : types.directSupertypes(current)) {
+                if (supertype.getKind() != TypeKind.DECLARED) {
+                    continue;
+                }
+                TypeElement superElement = (TypeElement) ((DeclaredType) supertype).asElement();
+                if (result.add(superElement)) {
+                    stack.push(supertype);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+}
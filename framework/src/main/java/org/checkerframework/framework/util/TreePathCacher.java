@@ -4,25 +4,32 @@ import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
 import com.sun.source.util.TreeScanner;
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
- * TreePathCacher is a TreeScanner that creates and caches a TreePath for a target Tree.
+ * TreePathCacher creates and caches a TreePath for a target Tree.
  *
- * <p>This class replicates some logic from TreePath.getPath but also adds caching to all
- * intermediate TreePaths that are generated. The intermediate TreePaths are reused when other
- * targets have overlapping paths.
+ * <p>The first time a path in a compilation unit is requested, the compilation unit is scanned once
+ * to map every tree to its parent. A path is then built by climbing the parents of the target, so
+ * looking it up takes time proportional to the depth of the target. All intermediate TreePaths that
+ * are built are cached as well, and are reused when other targets have overlapping paths.
  */
-public class TreePathCacher extends TreeScanner<TreePath, Tree> {
+public class TreePathCacher {
 
-    private final Map<Tree, TreePath> foundPaths = new HashMap<>(32);
+    private final Map<Tree, TreePath> foundPaths = new IdentityHashMap<>(32);
+
+    /** The compilation unit whose trees are in {@link #parents}, or null. */
+    private @Nullable CompilationUnitTree indexedRoot;
 
     /**
-     * The TreePath of the previous tree scanned. It is always set back to null after a scan has
-     * completed.
+     * Maps every tree in {@link #indexedRoot} to its parent. If a tree occurs more than once, its
+     * first parent in scan order is recorded, as {@link TreePath#getPath} would find.
      */
-    private TreePath path;
+    private final Map<Tree, Tree> parents = new IdentityHashMap<>();
 
     /**
      * @param target the tree to search for
@@ -43,9 +50,6 @@ public class TreePathCacher extends TreeScanner<TreePath, Tree> {
     /**
      * Return the TreePath for a Tree.
      *
-     * <p>This method uses try/catch and the Result Error for control flow to stop the superclass
-     * from scanning other subtrees when target is found.
-     *
      * @param root the compilation unit to search in
      * @param target the target tree to look for
      * @return the TreePath corresponding to target, or null if target is not found in the
@@ -55,54 +59,60 @@ public class TreePathCacher extends TreeScanner<TreePath, Tree> {
         if (foundPaths.containsKey(target)) {
             return foundPaths.get(target);
         }
-
-        TreePath path = new TreePath(root);
-        if (path.getLeaf() == target) {
-            return path;
-        }
-
-        try {
-            this.scan(path, target);
-        } catch (Result result) {
-            return result.path;
+        if (indexedRoot != root) {
+            parents.clear();
+            new ParentScanner().scan(root, null);
+            indexedRoot = root;
         }
-        // If a path wasn't found, cache null so the whole compilation unit isn't searched again.
-        foundPaths.put(target, null);
-        return null;
-    }
 
-    private static class Result extends Error {
-        private static final long serialVersionUID = 4948452207518392627L;
+        // Climb from the target to the nearest ancestor whose path is known.
+        Deque<Tree> descendants = new ArrayDeque<>();
+        Tree current = target;
         TreePath path;
+        while (true) {
+            path = foundPaths.get(current);
+            if (path != null) {
+                break;
+            }
+            if (current == root) {
+                path = new TreePath(root);
+                foundPaths.put(root, path);
+                break;
+            }
+            descendants.push(current);
+            current = parents.get(current);
+            if (current == null) {
+                // If a path wasn't found, cache null so the parents aren't searched again.
+                foundPaths.put(target, null);
+                return null;
+            }
+        }
 
-        Result(TreePath path) {
-            this.path = path;
+        // Build and cache the path of every tree between that ancestor and the target.
+        while (!descendants.isEmpty()) {
+            path = new TreePath(path, descendants.pop());
+            foundPaths.put(path.getLeaf(), path);
         }
+        return path;
     }
 
     public void clear() {
         foundPaths.clear();
+        parents.clear();
+        indexedRoot = null;
     }
 
-    /** Scan a single node. The current path is updated for the duration of the scan. */
-    @Override
-    public TreePath scan(Tree tree, Tree target) {
-        TreePath prev = path;
-        if (tree != null && foundPaths.get(tree) == null) {
-            TreePath current = new TreePath(path, tree);
-            foundPaths.put(tree, current);
-            path = current;
-        } else {
-            this.path = foundPaths.get(tree);
-        }
-
-        if (tree == target) {
-            throw new Result(path);
-        }
-        try {
-            return super.scan(tree, target);
-        } finally {
-            this.path = prev;
+    /** Records the parent of every tree it scans in {@link #parents}. */
+    private class ParentScanner extends TreeScanner<Void, Tree> {
+        @Override
+        public Void scan(Tree tree, Tree parent) {
+            if (tree == null) {
+                return null;
+            }
+            if (parent != null) {
+                parents.putIfAbsent(tree, parent);
+            }
+            return super.scan(tree, tree);
         }
     }
 }
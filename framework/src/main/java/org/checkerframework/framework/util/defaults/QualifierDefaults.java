@@ -11,6 +11,9 @@ import com.sun.source.tree.TypeParameterTree;
 import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Type.WildcardType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
@@ -101,6 +104,18 @@ public class QualifierDefaults {
     /** A mapping of Element &rarr; Whether or not that element is AnnotatedFor this type system. */
     private final Map<Element, Boolean> elementAnnotatedFors = new IdentityHashMap<>();
 
+    /**
+     * The defaults that apply in an annotation scope to which the unchecked code defaults do not
+     * apply, in the order in which they are applied. See {@link #compiledDefaults}.
+     */
+    private final Map<Element, List<Default>> checkedScopeDefaults = new IdentityHashMap<>();
+
+    /**
+     * The defaults that apply in an annotation scope to which the unchecked code defaults apply, in
+     * the order in which they are applied. See {@link #compiledDefaults}.
+     */
+    private final Map<Element, List<Default>> uncheckedScopeDefaults = new IdentityHashMap<>();
+
     /** CLIMB locations whose standard default is top for a given type system. */
     public static final TypeUseLocation[] STANDARD_CLIMB_DEFAULTS_TOP = {
         TypeUseLocation.LOCAL_VARIABLE,
@@ -261,6 +276,7 @@ public class QualifierDefaults {
             AnnotationMirror absoluteDefaultAnno, TypeUseLocation location) {
         checkDuplicates(checkedCodeDefaults, absoluteDefaultAnno, location);
         checkedCodeDefaults.add(new Default(absoluteDefaultAnno, location));
+        clearCompiledDefaults();
     }
 
     /** Sets the default annotation for unchecked elements. */
@@ -270,6 +286,7 @@ public class QualifierDefaults {
         checkIsValidUncheckedCodeLocation(uncheckedDefaultAnno, location);
 
         uncheckedCodeDefaults.add(new Default(uncheckedDefaultAnno, location));
+        clearCompiledDefaults();
     }
 
     /** Sets the default annotation for unchecked elements, with specific locations. */
@@ -298,6 +315,13 @@ public class QualifierDefaults {
         }
         prevset.add(new Default(elementDefaultAnno, location));
         elementDefaults.put(elem, prevset);
+        clearCompiledDefaults();
+    }
+
+    /** Discards the defaults compiled for each annotation scope, after a default was added. */
+    private void clearCompiledDefaults() {
+        checkedScopeDefaults.clear();
+        uncheckedScopeDefaults.clear();
     }
 
     private void checkIsValidUncheckedCodeLocation(
@@ -685,23 +709,38 @@ public class QualifierDefaults {
      */
     private void applyDefaultsElement(
             final Element annotationScope, final AnnotatedTypeMirror type) {
-        DefaultSet defaults = defaultsAt(annotationScope);
+        List<Default> defaults =
+                compiledDefaults(annotationScope, applyUncheckedCodeDefaults(annotationScope));
         DefaultApplierElement applier =
                 createDefaultApplierElement(atypeFactory, annotationScope, type, applyToTypeVar);
+        applier.applyDefaults(defaults);
+    }
 
-        for (Default def : defaults) {
-            applier.applyDefault(def);
-        }
-
-        if (applyUncheckedCodeDefaults(annotationScope)) {
-            for (Default def : uncheckedCodeDefaults) {
-                applier.applyDefault(def);
+    /**
+     * Returns all the defaults that apply in the given annotation scope, in the order in which they
+     * are applied: the defaults of the scope and its enclosing elements, then the unchecked code
+     * defaults if {@code applyUnchecked} is true, then the checked code defaults. The list is
+     * computed once per scope, so that the enclosing elements of a scope are not searched for
+     * {@code @DefaultQualifier} annotations every time a type is defaulted.
+     *
+     * @param annotationScope the element representing the nearest enclosing default annotation
+     *     scope
+     * @param applyUnchecked whether the unchecked code defaults apply in {@code annotationScope}
+     * @return the defaults to apply in {@code annotationScope}, in order
+     */
+    private List<Default> compiledDefaults(Element annotationScope, boolean applyUnchecked) {
+        Map<Element, List<Default>> table =
+                applyUnchecked ? uncheckedScopeDefaults : checkedScopeDefaults;
+        List<Default> defaults = table.get(annotationScope);
+        if (defaults == null) {
+            defaults = new ArrayList<>(defaultsAt(annotationScope));
+            if (applyUnchecked) {
+                defaults.addAll(uncheckedCodeDefaults);
             }
+            defaults.addAll(checkedCodeDefaults);
+            table.put(annotationScope, defaults);
         }
-
-        for (Default def : checkedCodeDefaults) {
-            applier.applyDefault(def);
-        }
+        return defaults;
     }
 
     protected DefaultApplierElement createDefaultApplierElement(
@@ -718,9 +757,7 @@ public class QualifierDefaults {
         protected final Element scope;
         protected final AnnotatedTypeMirror type;
 
-        /**
-         * Location to which to apply the default. (Should only be set by the applyDefault method.)
-         */
+        /** Location to which to apply the default. (Should only be set while applying defaults.) */
         protected TypeUseLocation location;
 
         /** The default element applier implementation. */
@@ -751,14 +788,65 @@ public class QualifierDefaults {
             this.defaultableTypeVar = applyToTypeVar ? (AnnotatedTypeVariable) type : null;
         }
 
+        /**
+         * The locations at which a default is applied only to the type itself or to its components
+         * that are known without scanning the type: its parameter, receiver, and return types, or
+         * its alternatives.
+         */
+        private static final Set<TypeUseLocation> TOP_LEVEL_LOCATIONS =
+                EnumSet.of(
+                        TypeUseLocation.FIELD,
+                        TypeUseLocation.LOCAL_VARIABLE,
+                        TypeUseLocation.RESOURCE_VARIABLE,
+                        TypeUseLocation.EXCEPTION_PARAMETER,
+                        TypeUseLocation.RECEIVER,
+                        TypeUseLocation.PARAMETER,
+                        TypeUseLocation.RETURN,
+                        TypeUseLocation.CONSTRUCTOR_RESULT);
+
         /**
          * Apply default to the type.
          *
          * @param def default to apply
          */
         public void applyDefault(Default def) {
-            this.location = def.location;
-            impl.visit(type, def.anno);
+            applyDefaults(Collections.singletonList(def));
+        }
+
+        /**
+         * Apply the defaults to the type, in order. The result is the same as calling {@link
+         * #applyDefault} for each default, but a default at a top-level location such as {@link
+         * TypeUseLocation#RETURN} is applied without scanning the type, and each run of consecutive
+         * defaults at other locations is applied in a single scan of the type.
+         *
+         * @param defaults the defaults to apply
+         */
+        public void applyDefaults(List<Default> defaults) {
+            int runStart = 0;
+            for (int i = 0; i < defaults.size(); i++) {
+                Default def = defaults.get(i);
+                if (TOP_LEVEL_LOCATIONS.contains(def.location)) {
+                    scanDefaults(defaults.subList(runStart, i));
+                    if (shouldBeAnnotated(type, type == defaultableTypeVar)) {
+                        this.location = def.location;
+                        impl.applyDefault(type, def.anno);
+                    }
+                    runStart = i + 1;
+                }
+            }
+            scanDefaults(defaults.subList(runStart, defaults.size()));
+        }
+
+        /**
+         * Applies the defaults to every component of the type in a single scan. At each component,
+         * the defaults are applied in order.
+         *
+         * @param defaults the defaults to apply; none of them is at a top-level location
+         */
+        private void scanDefaults(List<Default> defaults) {
+            if (!defaults.isEmpty()) {
+                impl.visit(type, defaults);
+            }
         }
 
         /**
@@ -812,14 +900,42 @@ public class QualifierDefaults {
         }
 
         protected class DefaultApplierElementImpl
-                extends AnnotatedTypeScanner<Void, AnnotationMirror> {
+                extends AnnotatedTypeScanner<Void, List<Default>> {
 
             @Override
-            public Void scan(AnnotatedTypeMirror t, AnnotationMirror qual) {
-                if (!shouldBeAnnotated(t, t == defaultableTypeVar)) {
-                    return super.scan(t, qual);
+            public Void scan(AnnotatedTypeMirror t, List<Default> defaults) {
+                if (shouldBeAnnotated(t, t == defaultableTypeVar)) {
+                    for (Default def : defaults) {
+                        location = def.location;
+                        applyDefault(t, def.anno);
+                    }
                 }
+                return super.scan(t, defaults);
+            }
+
+            /**
+             * Applies a qualifier at the current location to {@code t} and its components.
+             *
+             * @param t the type to annotate
+             * @param qual the qualifier to apply
+             * @return null
+             * @deprecated the framework no longer calls this method; use {@link
+             *     #scan(AnnotatedTypeMirror, List)}, and override {@link #applyDefault} to change
+             *     how a qualifier is applied
+             */
+            @Deprecated // use scan(AnnotatedTypeMirror, List) and applyDefault()
+            public Void scan(AnnotatedTypeMirror t, AnnotationMirror qual) {
+                return scan(t, Collections.singletonList(new Default(qual, location)));
+            }
 
+            /**
+             * Applies the qualifier to {@code t}, which is a component of the type, if the location
+             * of the current default is {@code t}'s location.
+             *
+             * @param t a component of the type that should be annotated
+             * @param qual the qualifier of the current default
+             */
+            protected void applyDefault(AnnotatedTypeMirror t, AnnotationMirror qual) {
                 switch (location) {
                     case FIELD:
                         {
@@ -1001,8 +1117,6 @@ public class QualifierDefaults {
                                             + location);
                         }
                 }
-
-                return super.scan(t, qual);
             }
 
             @Override
@@ -1023,35 +1137,35 @@ public class QualifierDefaults {
             private BoundType boundType = BoundType.UNBOUNDED;
 
             @Override
-            public Void visitTypeVariable(AnnotatedTypeVariable type, AnnotationMirror qual) {
+            public Void visitTypeVariable(AnnotatedTypeVariable type, List<Default> defaults) {
                 if (visitedNodes.containsKey(type)) {
                     return visitedNodes.get(type);
                 }
 
-                visitBounds(type, type.getUpperBound(), type.getLowerBound(), qual);
+                visitBounds(type, type.getUpperBound(), type.getLowerBound(), defaults);
                 return null;
             }
 
             @Override
-            public Void visitWildcard(AnnotatedWildcardType type, AnnotationMirror qual) {
+            public Void visitWildcard(AnnotatedWildcardType type, List<Default> defaults) {
                 if (visitedNodes.containsKey(type)) {
                     return visitedNodes.get(type);
                 }
 
-                visitBounds(type, type.getExtendsBound(), type.getSuperBound(), qual);
+                visitBounds(type, type.getExtendsBound(), type.getSuperBound(), defaults);
                 return null;
             }
 
             /**
-             * Visit the bounds of a type variable or a wildcard and potentially apply qual to those
-             * bounds. This method will also update the boundType, isLowerBound, and isUpperbound
-             * fields.
+             * Visit the bounds of a type variable or a wildcard and potentially apply the defaults
+             * to those bounds. This method will also update the boundType, isLowerBound, and
+             * isUpperbound fields.
              */
             protected void visitBounds(
                     AnnotatedTypeMirror boundedType,
                     AnnotatedTypeMirror upperBound,
                     AnnotatedTypeMirror lowerBound,
-                    AnnotationMirror qual) {
+                    List<Default> defaults) {
 
                 final boolean prevIsUpperBound = isUpperBound;
                 final boolean prevIsLowerBound = isLowerBound;
@@ -1062,13 +1176,13 @@ public class QualifierDefaults {
                 try {
                     isLowerBound = true;
                     isUpperBound = false;
-                    scanAndReduce(lowerBound, qual, null);
+                    scanAndReduce(lowerBound, defaults, null);
 
                     visitedNodes.put(type, null);
 
                     isLowerBound = false;
                     isUpperBound = true;
-                    scanAndReduce(upperBound, qual, null);
+                    scanAndReduce(upperBound, defaults, null);
 
                     visitedNodes.put(type, null);
 
@@ -0,0 +1,91 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.sun.tools.javac.main.JavaCompiler;
+import com.sun.tools.javac.main.Option;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.List;
+import com.sun.tools.javac.util.Options;
+import java.lang.ref.WeakReference;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.util.Elements;
+import org.checkerframework.javacutil.AnnotationBuilder;
+import org.junit.Test;
+
+/** Tests that {@link AnnotationBuilder#fromClass} caches annotations per compilation. */
+public class AnnotationBuilderCacheTest {
+
+    /**
+     * Creates the processing environment of a new compilation, and makes AnnotationBuilder cache
+     * its annotations.
+     *
+     * @return the processing environment of a new compilation
+     */
+    private static ProcessingEnvironment newCompilation() {
+        Context context = new Context();
+        Options options = Options.instance(context);
+        options.put(Option.SOURCE, "8");
+        options.put(Option.TARGET, "8");
+
+        ProcessingEnvironment env = JavacProcessingEnvironment.instance(context);
+        JavaCompiler javac = JavaCompiler.instance(context);
+        javac.initModules(List.nil());
+        javac.enterDone();
+        AnnotationBuilder.cacheAnnotations(env);
+        return env;
+    }
+
+    @Test
+    public void sameCompilationSharesAnnotations() {
+        Elements elements = newCompilation().getElementUtils();
+        assertSame(
+                AnnotationBuilder.fromClass(elements, Deprecated.class),
+                AnnotationBuilder.fromClass(elements, Deprecated.class));
+    }
+
+    @Test
+    public void separateCompilationsDoNotShareAnnotations() {
+        Elements first = newCompilation().getElementUtils();
+        Elements second = newCompilation().getElementUtils();
+        AnnotationMirror firstAnno = AnnotationBuilder.fromClass(first, Deprecated.class);
+        AnnotationMirror secondAnno = AnnotationBuilder.fromClass(second, Deprecated.class);
+
+        assertNotSame(firstAnno, secondAnno);
+        assertSame(
+                first.getTypeElement("java.lang.Deprecated"),
+                firstAnno.getAnnotationType().asElement());
+        assertSame(
+                second.getTypeElement("java.lang.Deprecated"),
+                secondAnno.getAnnotationType().asElement());
+    }
+
+    @Test
+    public void finishedCompilationIsNotRetained() throws InterruptedException {
+        WeakReference<Elements> finished = compileAndDiscard();
+        AnnotationBuilder.fromClass(newCompilation().getElementUtils(), Deprecated.class);
+
+        for (int i = 0; i < 50 && finished.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull("the annotations of a finished compilation are retained", finished.get());
+    }
+
+    /**
+     * Runs a compilation that creates an annotation, and discards it.
+     *
+     * @return a weak reference to the element utilities of the discarded compilation
+     */
+    private static WeakReference<Elements> compileAndDiscard() {
+        Elements elements = newCompilation().getElementUtils();
+        AnnotationMirror anno = AnnotationBuilder.fromClass(elements, Deprecated.class);
+        assertEquals("java.lang.Deprecated", anno.getAnnotationType().toString());
+        return new WeakReference<>(elements);
+    }
+}
@@ -0,0 +1,151 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.checkerframework.framework.test.CompilationResult;
+import org.checkerframework.framework.test.TestConfiguration;
+import org.checkerframework.framework.test.TestConfigurationBuilder;
+import org.checkerframework.framework.test.TestUtilities;
+import org.checkerframework.framework.test.TypecheckExecutor;
+import org.junit.Test;
+import testlib.compound.CompoundChecker;
+import testlib.flowexpression.FlowExpressionChecker;
+
+/** Tests the file that the {@code -AdiagnosticsOutput} command-line option writes. */
+public class DiagnosticsOutputTest {
+
+    /** The directory that contains the test files. */
+    private static final String TEST_DIR = "tests" + File.separator + "diagnostics-output";
+
+    /** The directory that the diagnostics are written to. */
+    private static final String OUTPUT_DIR = "build" + File.separator + "diagnostics-output";
+
+    @Test
+    public void subcheckersShareOneFile() throws IOException {
+        File output = new File(OUTPUT_DIR, "subcheckers.jsonl");
+        CompilationResult result = compile("Subcheckers.java", CompoundChecker.class, output);
+
+        // The unsuppressed errors are not issued, but each checker that wrote one issues a
+        // summary error, so the compilation still fails.
+        assertFalse(result.compiledWithoutError());
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : result.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(null));
+            }
+        }
+        Collections.sort(errors);
+        assertEquals(
+                Arrays.asList(
+                        "AliasingChecker wrote 1 error(s) to " + output,
+                        "ValueChecker wrote 1 error(s) to " + output),
+                errors);
+
+        List<String> lines = readLines(output);
+        assertEquals(3, lines.size());
+        assertEquals(
+                1,
+                count(
+                        lines,
+                        "\"checker\": \"AliasingChecker\"",
+                        "\"kind\": \"error\"",
+                        "\"key\": \"unique.location.forbidden\"",
+                        "\"suppressed\": false"));
+        assertEquals(
+                1,
+                count(
+                        lines,
+                        "\"checker\": \"ValueChecker\"",
+                        "\"kind\": \"error\"",
+                        "\"key\": \"assignment.type.incompatible\"",
+                        "\"suppressed\": false"));
+        assertEquals(
+                1,
+                count(
+                        lines,
+                        "\"checker\": \"ValueChecker\"",
+                        "\"kind\": \"error\"",
+                        "\"key\": \"assignment.type.incompatible\"",
+                        "\"suppressed\": true"));
+    }
+
+    @Test
+    public void argumentsAreEscaped() throws IOException {
+        File output = new File(OUTPUT_DIR, "escaping.jsonl");
+        compile("Escaping.java", FlowExpressionChecker.class, output);
+
+        List<String> lines = readLines(output);
+        assertTrue(count(lines, "\"key\": \"expression.unparsable.type.invalid\"") > 0);
+        for (String line : lines) {
+            assertTrue(line, line.startsWith("{") && line.endsWith("}"));
+            if (line.contains("\"key\": \"expression.unparsable.type.invalid\"")) {
+                assertTrue(line, line.contains("\\\"quoted\\\".leng"));
+                assertTrue(line, line.contains("]\\n[error for expression: lsdjf"));
+            }
+        }
+    }
+
+    /**
+     * Type-checks a test file, writing the diagnostics to a file.
+     *
+     * @param testFile the name of the test file, relative to {@link #TEST_DIR}
+     * @param checker the checker to run
+     * @param output the file to write the diagnostics to
+     * @return the result of the compilation
+     */
+    private static CompilationResult compile(String testFile, Class<?> checker, File output) {
+        TestUtilities.ensureDirectoryExists(output.getParentFile());
+        TestConfiguration config =
+                TestConfigurationBuilder.buildDefaultConfiguration(
+                        TEST_DIR,
+                        new File(TEST_DIR, testFile),
+                        checker.getName(),
+                        Collections.singletonList("-AdiagnosticsOutput=" + output),
+                        TestUtilities.getShouldEmitDebugInfo());
+        return new TypecheckExecutor().compile(config);
+    }
+
+    /**
+     * Reads the lines of a file.
+     *
+     * @param file a file
+     * @return the lines of {@code file}
+     * @throws IOException if the file cannot be read
+     */
+    private static List<String> readLines(File file) throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of lines that contain all of the given strings.
+     *
+     * @param lines lines of text
+     * @param fragments the strings to look for
+     * @return the number of lines in {@code lines} that contain every string in {@code fragments}
+     */
+    private static int count(List<String> lines, String... fragments) {
+        int count = 0;
+        for (String line : lines) {
+            boolean matches = true;
+            for (String fragment : fragments) {
+                matches &= line.contains(fragment);
+            }
+            if (matches) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,243 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.util.TreePathScanner;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.checkerframework.dataflow.analysis.Analysis;
+import org.checkerframework.dataflow.analysis.AnalysisResult;
+import org.checkerframework.dataflow.analysis.TransferInput;
+import org.checkerframework.dataflow.cfg.CFGBuilder;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.block.Block;
+import org.checkerframework.dataflow.cfg.block.RegularBlock;
+import org.checkerframework.dataflow.cfg.node.Node;
+import org.checkerframework.dataflow.constantpropagation.Constant;
+import org.checkerframework.dataflow.constantpropagation.ConstantPropagationStore;
+import org.checkerframework.dataflow.constantpropagation.ConstantPropagationTransfer;
+import org.checkerframework.javacutil.BasicTypeProcessor;
+import org.checkerframework.javacutil.TreeUtils;
+import org.junit.Test;
+
+/**
+ * Tests that {@link AnalysisResult#getStoreBefore(Node)} and {@link
+ * AnalysisResult#getStoreAfter(Node)} return the same stores when they start from a checkpoint
+ * within a block as when they replay the block from its start.
+ */
+public class FlowCheckpointTest {
+
+    /** The test file. */
+    private static final String TEST_FILE =
+            "tests" + File.separator + "flow-checkpoints" + File.separator + "Checkpoints.java";
+
+    @Test
+    public void intervalOne() {
+        check(1);
+    }
+
+    @Test
+    public void intervalThree() {
+        check(3);
+    }
+
+    @Test
+    public void defaultInterval() {
+        check(Analysis.DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Analyzes the methods of the test file with the given checkpoint interval, and compares the
+     * stores at every node with the stores that a replay from the start of its block computes.
+     *
+     * @param interval the checkpoint interval
+     */
+    private static void check(int interval) {
+        CheckpointProcessor processor = new CheckpointProcessor(interval);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        Iterable<? extends JavaFileObject> files =
+                fileManager.getJavaFileObjectsFromStrings(Collections.singletonList(TEST_FILE));
+        JavaCompiler.CompilationTask task =
+                compiler.getTask(null, fileManager, null, Arrays.asList("-proc:only"), null, files);
+        task.setProcessors(Collections.singletonList(processor));
+        assertTrue(task.call());
+
+        assertEquals(Collections.emptyList(), processor.failures);
+        assertTrue(processor.comparedNodes > 0);
+        assertTrue("no checkpoint was used", processor.storedCheckpoints > 0);
+        assertTrue("no block with checkpoints was analyzed twice", processor.reanalyzed);
+    }
+
+    /** Runs the analysis on every method and compares the stores at its nodes. */
+    @SupportedAnnotationTypes("*")
+    private static class CheckpointProcessor extends BasicTypeProcessor {
+
+        /** The checkpoint interval. */
+        private final int interval;
+
+        /** Descriptions of the nodes at which the stores differ. */
+        final List<String> failures = new ArrayList<>();
+
+        /** The number of nodes whose stores were compared. */
+        int comparedNodes = 0;
+
+        /** The number of checkpoints that the analyses stored. */
+        int storedCheckpoints = 0;
+
+        /** True if a block that contains a checkpoint was analyzed more than once. */
+        boolean reanalyzed = false;
+
+        /**
+         * Creates a CheckpointProcessor.
+         *
+         * @param interval the checkpoint interval
+         */
+        CheckpointProcessor(int interval) {
+            this.interval = interval;
+        }
+
+        @Override
+        protected TreePathScanner<?, ?> createTreePathScanner(CompilationUnitTree root) {
+            return new TreePathScanner<Void, Void>() {
+                @Override
+                public Void visitMethod(MethodTree tree, Void p) {
+                    ClassTree classTree = TreeUtils.enclosingClass(getCurrentPath());
+                    try {
+                        check(root, tree, classTree);
+                    } catch (RuntimeException | AssertionError e) {
+                        failures.add(tree.getName() + ": " + e);
+                    }
+                    return null;
+                }
+            };
+        }
+
+        /**
+         * Analyzes a method and compares the stores at its nodes.
+         *
+         * @param root the compilation unit
+         * @param tree the method
+         * @param classTree the class that declares the method
+         */
+        private void check(CompilationUnitTree root, MethodTree tree, ClassTree classTree) {
+            ControlFlowGraph cfg = CFGBuilder.build(root, tree, classTree, processingEnv);
+            CountingAnalysis analysis = new CountingAnalysis();
+            analysis.setCheckpointInterval(interval);
+            analysis.performAnalysis(cfg);
+            storedCheckpoints += analysis.checkpointCount();
+            AnalysisResult<Constant, ConstantPropagationStore> result = analysis.getResult();
+
+            for (Block block : cfg.getAllBlocks()) {
+                TransferInput<Constant, ConstantPropagationStore> input = analysis.getInput(block);
+                if (block.getType() != Block.BlockType.REGULAR_BLOCK || input == null) {
+                    continue;
+                }
+                List<Node> contents = ((RegularBlock) block).getContents();
+                if (contents.size() > interval && analysis.timesAnalyzed(block) > 1) {
+                    reanalyzed = true;
+                }
+                for (Node node : contents) {
+                    compare(node, true, result.getStoreBefore(node), replay(analysis, node, true));
+                    compare(node, false, result.getStoreAfter(node), replay(analysis, node, false));
+                    comparedNodes++;
+                }
+            }
+        }
+
+        /**
+         * Returns the store at a node, computed by running the transfer functions from the start of
+         * its block.
+         *
+         * @param analysis the analysis
+         * @param node a node
+         * @param before whether to return the store before {@code node}, or after it
+         * @return the store before or after {@code node}
+         */
+        private static ConstantPropagationStore replay(
+                CountingAnalysis analysis, Node node, boolean before) {
+            return AnalysisResult.runAnalysisFor(
+                    node,
+                    before,
+                    analysis.getInput(node.getBlock()),
+                    analysis.getNodeValues(),
+                    null);
+        }
+
+        /**
+         * Records a failure if two stores differ.
+         *
+         * @param node the node at which the stores were computed
+         * @param before whether the stores are before {@code node}, or after it
+         * @param fromCheckpoint the store computed from a checkpoint
+         * @param fromBlockStart the store computed from the start of the block
+         */
+        private void compare(
+                Node node,
+                boolean before,
+                ConstantPropagationStore fromCheckpoint,
+                ConstantPropagationStore fromBlockStart) {
+            if (!fromBlockStart.equals(fromCheckpoint)) {
+                failures.add(
+                        (before ? "before " : "after ")
+                                + node
+                                + ": "
+                                + fromCheckpoint
+                                + " instead of "
+                                + fromBlockStart);
+            }
+        }
+
+        /** An analysis that counts how often it analyzes each block. */
+        private class CountingAnalysis
+                extends Analysis<Constant, ConstantPropagationStore, ConstantPropagationTransfer> {
+
+            /** The number of times each block was analyzed. */
+            private final Map<Block, Integer> counts = new IdentityHashMap<>();
+
+            /** Creates a CountingAnalysis. */
+            CountingAnalysis() {
+                super(new ConstantPropagationTransfer(), processingEnv);
+            }
+
+            @Override
+            protected void performAnalysisBlock(Block b) {
+                counts.merge(b, 1, Integer::sum);
+                super.performAnalysisBlock(b);
+            }
+
+            /**
+             * Returns the number of times a block was analyzed.
+             *
+             * @param b a block
+             * @return the number of times {@code b} was analyzed
+             */
+            int timesAnalyzed(Block b) {
+                return counts.getOrDefault(b, 0);
+            }
+
+            /**
+             * Returns the number of checkpoints that were stored.
+             *
+             * @return the number of checkpoints that were stored
+             */
+            int checkpointCount() {
+                return checkpoints.size();
+            }
+        }
+    }
+}
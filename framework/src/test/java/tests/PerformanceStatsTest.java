@@ -0,0 +1,67 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import org.checkerframework.framework.test.CompilationResult;
+import org.checkerframework.framework.test.TestConfiguration;
+import org.checkerframework.framework.test.TestConfigurationBuilder;
+import org.checkerframework.framework.test.TestUtilities;
+import org.checkerframework.framework.test.TypecheckExecutor;
+import org.junit.Test;
+import testlib.aggregate.AggregateOfCompoundChecker;
+
+/** Tests the file that the {@code -AperformanceStats} command-line option writes. */
+public class PerformanceStatsTest {
+
+    /** The directory that contains the test files. */
+    private static final String TEST_DIR = "tests" + File.separator + "performance-stats";
+
+    /** The directory that the statistics are written to. */
+    private static final String OUTPUT_DIR = "build" + File.separator + "performance-stats";
+
+    @Test
+    public void aggregateWritesAllComponents() throws IOException {
+        File output = new File(OUTPUT_DIR, "aggregate.csv");
+        TestUtilities.ensureDirectoryExists(output.getParentFile());
+        TestConfiguration config =
+                TestConfigurationBuilder.buildDefaultConfiguration(
+                        TEST_DIR,
+                        new File(TEST_DIR, "PerformanceStats.java"),
+                        AggregateOfCompoundChecker.class.getName(),
+                        Collections.singletonList("-AperformanceStats=" + output),
+                        TestUtilities.getShouldEmitDebugInfo());
+        CompilationResult result = new TypecheckExecutor().compile(config);
+        assertTrue(result.getDiagnostics().toString(), result.compiledWithoutError());
+
+        List<String> lines = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+        assertEquals("checker,class,kind,name,count,value", lines.get(0));
+        assertEquals(1, count(lines, "checker,"));
+        assertTrue(count(lines, "ValueChecker,") > 0);
+        assertTrue(count(lines, "AliasingChecker,") > 0);
+        assertTrue(count(lines, "CompoundChecker,") > 0);
+    }
+
+    /**
+     * Returns the number of lines that start with the given prefix.
+     *
+     * @param lines lines of text
+     * @param prefix the prefix to look for
+     * @return the number of lines in {@code lines} that start with {@code prefix}
+     */
+    private static int count(List<String> lines, String prefix) {
+        int count = 0;
+        for (String line : lines) {
+            if (line.startsWith(prefix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
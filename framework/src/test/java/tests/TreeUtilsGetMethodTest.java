@@ -0,0 +1,74 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+
+import com.sun.tools.javac.main.JavaCompiler;
+import com.sun.tools.javac.main.Option;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.List;
+import com.sun.tools.javac.util.Options;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ExecutableElement;
+import org.checkerframework.javacutil.BugInCF;
+import org.checkerframework.javacutil.TreeUtils;
+import org.junit.Test;
+
+/** Tests {@link TreeUtils#getMethod(String, String, ProcessingEnvironment, String...)}. */
+public class TreeUtilsGetMethodTest {
+
+    private final ProcessingEnvironment env;
+
+    public TreeUtilsGetMethodTest() {
+        Context context = new Context();
+        Options options = Options.instance(context);
+        options.put(Option.SOURCE, "8");
+        options.put(Option.TARGET, "8");
+
+        env = JavacProcessingEnvironment.instance(context);
+        JavaCompiler javac = JavaCompiler.instance(context);
+        javac.initModules(List.nil());
+        javac.enterDone();
+    }
+
+    @Test
+    public void primitiveAndClassParameters() {
+        ExecutableElement method =
+                TreeUtils.getMethod("java.lang.String", "indexOf", env, "java.lang.String", "int");
+        assertEquals("indexOf", method.getSimpleName().toString());
+        assertEquals(2, method.getParameters().size());
+    }
+
+    @Test
+    public void arrayParameter() {
+        ExecutableElement method =
+                TreeUtils.getMethod("java.lang.String", "valueOf", env, "char[]");
+        assertEquals("char[]", method.getParameters().get(0).asType().toString());
+    }
+
+    @Test
+    public void varargsParameterWrittenAsArray() {
+        ExecutableElement method = TreeUtils.getMethod("java.util.Arrays", "asList", env, "T[]");
+        assertEquals("asList", method.getSimpleName().toString());
+    }
+
+    @Test
+    public void varargsParameterWrittenWithEllipsis() {
+        ExecutableElement asList = TreeUtils.getMethod("java.util.Arrays", "asList", env, "T...");
+        assertEquals(TreeUtils.getMethod("java.util.Arrays", "asList", env, "T[]"), asList);
+
+        ExecutableElement format =
+                TreeUtils.getMethod(
+                        "java.lang.String",
+                        "format",
+                        env,
+                        "java.lang.String",
+                        "java.lang.Object...");
+        assertEquals(2, format.getParameters().size());
+    }
+
+    @Test(expected = BugInCF.class)
+    public void mismatchedParameter() {
+        TreeUtils.getMethod("java.lang.String", "valueOf", env, "char[][]");
+    }
+}
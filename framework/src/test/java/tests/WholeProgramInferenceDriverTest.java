@@ -0,0 +1,125 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+import org.checkerframework.common.wholeprograminference.WholeProgramInferenceDriver;
+import org.checkerframework.common.wholeprograminference.WholeProgramInferenceScenesHelper;
+import org.junit.Assume;
+import org.junit.Test;
+import testlib.wholeprograminference.WholeProgramInferenceTestChecker;
+
+/**
+ * Runs {@link WholeProgramInferenceDriver} on the program in tests/whole-program-inference-driver/.
+ *
+ * <p>The driver runs {@code insert-annotations-to-source}, so this test only runs when the {@code
+ * wpi.driver.test} system property is set; see the testWPIDriver task.
+ */
+public class WholeProgramInferenceDriverTest {
+
+    /** The program to infer annotations for. */
+    private static final String PROGRAM =
+            "tests" + File.separator + "whole-program-inference-driver" + File.separator;
+
+    /** The directory that contains the copies of the program that the driver annotates. */
+    private static final String WORK_DIR =
+            "build" + File.separator + "whole-program-inference-driver" + File.separator;
+
+    /** Matches the declaration of getSibling1 once its return type has been annotated. */
+    private static final Pattern ANNOTATED_RETURN =
+            Pattern.compile("Sibling1\\s+int getSibling1\\(");
+
+    @Test
+    public void inferToFixpoint() throws IOException {
+        Assume.assumeTrue(Boolean.getBoolean("wpi.driver.test"));
+
+        Path javaFile = copyProgram("no-input");
+        assertFalse(ANNOTATED_RETURN.matcher(read(javaFile)).find());
+        int rounds = runDriver(javaFile, null);
+        assertEquals(2, rounds);
+        assertTrue(ANNOTATED_RETURN.matcher(read(javaFile)).find());
+    }
+
+    @Test
+    public void inputJaifIsInserted() throws IOException {
+        Assume.assumeTrue(Boolean.getBoolean("wpi.driver.test"));
+
+        // Infer the annotations once, and use the result as the input of a second run.
+        runDriver(copyProgram("first-run"), null);
+        Path jaif =
+                Paths.get(WholeProgramInferenceScenesHelper.JAIF_FILES_PATH, "DriverProgram.jaif");
+        Path inputJaif = Paths.get(WORK_DIR, "DriverProgram.jaif");
+        Files.copy(jaif, inputJaif, StandardCopyOption.REPLACE_EXISTING);
+
+        // The first round of the second run infers nothing new, but its annotations must still
+        // be inserted.
+        Path javaFile = copyProgram("input-jaif");
+        int rounds = runDriver(javaFile, inputJaif);
+        assertEquals(1, rounds);
+        assertTrue(ANNOTATED_RETURN.matcher(read(javaFile)).find());
+    }
+
+    /**
+     * Copies the program into a new directory.
+     *
+     * @param name the name of the directory, relative to {@link #WORK_DIR}
+     * @return the copy of the program's .java file
+     * @throws IOException if the program cannot be copied
+     */
+    private static Path copyProgram(String name) throws IOException {
+        Path dir = Paths.get(WORK_DIR, name);
+        Files.createDirectories(dir);
+        Path javaFile = dir.resolve("DriverProgram.java");
+        Files.copy(
+                Paths.get(PROGRAM, "DriverProgram.java"),
+                javaFile,
+                StandardCopyOption.REPLACE_EXISTING);
+        return javaFile;
+    }
+
+    /**
+     * Runs the driver on one .java file.
+     *
+     * @param javaFile the .java file
+     * @param inputJaif the .jaif file with the initial inference results, or null
+     * @return the number of rounds that were run
+     */
+    private static int runDriver(Path javaFile, Path inputJaif) {
+        String[] args =
+                inputJaif == null
+                        ? new String[] {
+                            WholeProgramInferenceTestChecker.class.getName(),
+                            System.getProperty("java.class.path"),
+                            "-Anomsgtext",
+                            javaFile.toString()
+                        }
+                        : new String[] {
+                            WholeProgramInferenceTestChecker.class.getName(),
+                            System.getProperty("java.class.path"),
+                            "-Anomsgtext",
+                            inputJaif.toString(),
+                            javaFile.toString()
+                        };
+        return new WholeProgramInferenceDriver(args).inferAndAnnotate();
+    }
+
+    /**
+     * Reads a file.
+     *
+     * @param file a file
+     * @return the contents of {@code file}
+     * @throws IOException if the file cannot be read
+     */
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
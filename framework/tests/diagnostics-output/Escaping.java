@@ -0,0 +1,8 @@
+import testlib.flowexpression.qual.FlowExp;
+
+// Input to DiagnosticsOutputTest. Both expressions are invalid, and they are reported in one
+// message argument, separated by a newline. The first expression contains quotation marks.
+public class Escaping {
+    @FlowExp({"\"quoted\".leng", "lsdjf"})
+    Object o = null;
+}
@@ -0,0 +1,15 @@
+import org.checkerframework.common.aliasing.qual.Unique;
+import org.checkerframework.common.value.qual.StringVal;
+
+// Input to DiagnosticsOutputTest. The Aliasing Checker and the Value Checker, which are both
+// subcheckers of CompoundChecker, report errors here.
+public class Subcheckers {
+    @Unique String[] array;
+
+    @StringVal("hello")
+    String s = "goodbye";
+
+    @SuppressWarnings("value")
+    @StringVal("hello")
+    String t = "goodbye";
+}
@@ -0,0 +1,46 @@
+// Input to FlowCheckpointTest. Each method has a basic block that is longer than the checkpoint
+// intervals that the test uses.
+class Checkpoints {
+    int straightLine(int p) {
+        int a = 1;
+        int b = a;
+        int c = 2;
+        int d = c;
+        int e = p;
+        a = 3;
+        b = e;
+        c = a;
+        d = 4;
+        e = d;
+        a = b;
+        b = 5;
+        c = b;
+        d = a;
+        e = 6;
+        a = e;
+        b = c;
+        c = 7;
+        d = p;
+        e = a;
+        return a + b + c + d + e;
+    }
+
+    int loop(int n) {
+        int a = 0;
+        int b = 1;
+        int c = 2;
+        // The body is analyzed again after a, b, and c stop being constants.
+        while (n > 0) {
+            int d = a;
+            a = b;
+            b = c;
+            c = 3;
+            int e = d;
+            d = 4;
+            e = c;
+            a = e;
+            n = n - 1;
+        }
+        return a + b + c;
+    }
+}
@@ -0,0 +1,36 @@
+import testlib.util.*;
+
+// The type of an invocation of a generic method depends on the refined types of its arguments, so
+// it must not be reused from an earlier dataflow state, such as the first iteration of a loop.
+class InvocationTypes {
+
+    <T> T id(T t) {
+        return t;
+    }
+
+    void beforeLoop(@Odd String odd) {
+        String x = odd;
+        @Odd String y = id(x);
+    }
+
+    void inLoop(@Odd String odd, String s, boolean b) {
+        String x = odd;
+        while (b) {
+            // In the first iteration x is @Odd, but not in later ones.
+            // :: error: (assignment.type.incompatible)
+            @Odd String y = id(x);
+            x = s;
+        }
+    }
+
+    void afterLoop(@Odd String odd, String s, boolean b) {
+        String x = s;
+        while (b) {
+            x = odd;
+        }
+        // :: error: (assignment.type.incompatible)
+        @Odd String y = id(x);
+        x = odd;
+        @Odd String z = id(x);
+    }
+}
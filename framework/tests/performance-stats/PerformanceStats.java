@@ -0,0 +1,8 @@
+import org.checkerframework.common.value.qual.IntVal;
+
+// Input to PerformanceStatsTest.
+public class PerformanceStats {
+    @IntVal(1) int one = 1;
+
+    Object o = "string";
+}
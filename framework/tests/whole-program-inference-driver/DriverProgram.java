@@ -0,0 +1,16 @@
+import testlib.wholeprograminference.qual.*;
+
+// Input to WholeProgramInferenceDriverTest. The return type of getSibling1 is inferred to be
+// @Sibling1.
+public class DriverProgram {
+
+    int getSibling1() {
+        return (@Sibling1 int) 0;
+    }
+
+    void expectsSibling1(@Sibling1 int i) {}
+
+    void test() {
+        expectsSibling1(getSibling1());
+    }
+}
@@ -1,16 +1,20 @@
 package org.checkerframework.javacutil;
 
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
 import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
@@ -65,9 +69,22 @@ public class AnnotationBuilder {
      * Caching for annotation creation. Each annotation has no values; that is, getElementValues
      * returns an empty map. This may be in conflict with the annotation's definition, which might
      * contain elements (annotation fields).
+     *
+     * <p>The annotations are cached per compilation, because an AnnotationMirror refers to the
+     * symbols of one compilation. The cache of a compilation is stored in the compilation's {@link
+     * Context}; see {@link #cacheAnnotations(ProcessingEnvironment)}. Within a compilation, all
+     * checkers, subcheckers, and type factories share one AnnotationMirror per annotation name.
      */
-    private static final Map<CharSequence, AnnotationMirror> annotationsFromNames =
-            Collections.synchronizedMap(new HashMap<>());
+    private static final Context.Key<Map<String, AnnotationMirror>> annotationsFromNamesKey =
+            new Context.Key<>();
+
+    /**
+     * Maps the element utilities of a compilation to the cache of its annotations. Both the keys
+     * and the values are weak, because the cached annotations refer to the element utilities; the
+     * cache is kept alive by the compilation's {@link Context} only.
+     */
+    private static final Map<Elements, WeakReference<Map<String, AnnotationMirror>>>
+            annotationsFromNames = Collections.synchronizedMap(new WeakHashMap<>());
 
     /**
      * Create a new AnnotationBuilder for the given annotation and environment (with no
@@ -161,7 +178,9 @@ public class AnnotationBuilder {
      *     be loaded
      */
     public static @Nullable AnnotationMirror fromName(Elements elements, CharSequence name) {
-        AnnotationMirror res = annotationsFromNames.get(name);
+        Map<String, AnnotationMirror> cache = annotationCache(elements);
+        String key = name.toString();
+        AnnotationMirror res = cache == null ? null : cache.get(key);
         if (res != null) {
             return res;
         }
@@ -179,8 +198,41 @@ public class AnnotationBuilder {
         }
         AnnotationMirror result =
                 new CheckerFrameworkAnnotationMirror(annoType, Collections.emptyMap());
-        annotationsFromNames.put(name, result);
-        return result;
+        if (cache == null) {
+            return result;
+        }
+        AnnotationMirror previous = cache.putIfAbsent(key, result);
+        return previous != null ? previous : result;
+    }
+
+    /**
+     * Makes {@link #fromName(Elements, CharSequence)} and {@link #fromClass(Elements, Class)} cache
+     * the annotations of the compilation that the given processing environment belongs to. The
+     * cache is stored in the compilation's {@link Context}, so it is released together with the
+     * compilation. Without a call to this method, the annotations of a compilation are not cached.
+     *
+     * @param env the processing environment
+     */
+    public static void cacheAnnotations(ProcessingEnvironment env) {
+        Context context = ((JavacProcessingEnvironment) env).getContext();
+        Map<String, AnnotationMirror> cache = context.get(annotationsFromNamesKey);
+        if (cache == null) {
+            cache = new ConcurrentHashMap<>();
+            context.put(annotationsFromNamesKey, cache);
+        }
+        annotationsFromNames.put(env.getElementUtils(), new WeakReference<>(cache));
+    }
+
+    /**
+     * Returns the cache of the annotations of the compilation that the given element utilities
+     * belong to.
+     *
+     * @param elements the element utilities of a compilation
+     * @return the cache of the annotations of the compilation, or null if they are not cached
+     */
+    private static @Nullable Map<String, AnnotationMirror> annotationCache(Elements elements) {
+        WeakReference<Map<String, AnnotationMirror>> ref = annotationsFromNames.get(elements);
+        return ref == null ? null : ref.get();
     }
 
     // TODO: hack to clear out static state.
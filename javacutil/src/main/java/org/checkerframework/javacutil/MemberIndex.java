@@ -0,0 +1,200 @@
+package org.checkerframework.javacutil;
+
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.util.ElementFilter;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Indexes the methods of classes by name, for {@link TreeUtils#getMethod(String, String, int,
+ * ProcessingEnvironment)} and its overloads. Checkers look up the same JDK methods in their
+ * constructors, and every subchecker repeats the lookups, so one index is shared by the whole
+ * compilation; see {@link #instance(ProcessingEnvironment)}.
+ */
+final class MemberIndex {
+
+    /** The key of the MemberIndex of a compilation in the compilation's {@link Context}. */
+    private static final Context.Key<MemberIndex> memberIndexKey = new Context.Key<>();
+
+    /** The processing environment. */
+    private final ProcessingEnvironment env;
+
+    /** Maps a fully-qualified class name to its methods, keyed by simple name. */
+    private final Map<String, Map<String, List<ExecutableElement>>> methodsByName = new HashMap<>();
+
+    /** Maps a method signature, as built by {@link #signature}, to the matching method. */
+    private final Map<String, ExecutableElement> methodsBySignature = new HashMap<>();
+
+    /**
+     * Creates a MemberIndex.
+     *
+     * @param env the processing environment
+     */
+    private MemberIndex(ProcessingEnvironment env) {
+        this.env = env;
+    }
+
+    /**
+     * Returns the MemberIndex of the compilation that the given processing environment belongs to,
+     * creating it if necessary.
+     *
+     * @param env the processing environment
+     * @return the MemberIndex of the compilation
+     */
+    static MemberIndex instance(ProcessingEnvironment env) {
+        Context context = ((JavacProcessingEnvironment) env).getContext();
+        MemberIndex instance = context.get(memberIndexKey);
+        if (instance == null) {
+            instance = new MemberIndex(env);
+            context.put(memberIndexKey, instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the methods named {@code methodName} declared in class {@code typeName}.
+     *
+     * @param typeName the fully-qualified name of a class
+     * @param methodName the simple name of a method
+     * @return the methods named {@code methodName} declared in {@code typeName}
+     * @throws UserError if {@code typeName} cannot be loaded
+     */
+    List<ExecutableElement> getMethods(String typeName, String methodName) {
+        Map<String, List<ExecutableElement>> methods = methodsByName.get(typeName);
+        if (methods == null) {
+            TypeElement typeElt = env.getElementUtils().getTypeElement(typeName);
+            if (typeElt == null) {
+                throw new UserError("Configuration problem! Could not load type: " + typeName);
+            }
+            methods = new HashMap<>();
+            for (ExecutableElement exec : ElementFilter.methodsIn(typeElt.getEnclosedElements())) {
+                methods.computeIfAbsent(exec.getSimpleName().toString(), k -> new ArrayList<>(1))
+                        .add(exec);
+            }
+            methodsByName.put(typeName, methods);
+        }
+        List<ExecutableElement> result = methods.get(methodName);
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    /**
+     * Returns the method named {@code methodName} declared in class {@code typeName} whose formal
+     * parameters have the given types.
+     *
+     * @param typeName the fully-qualified name of a class
+     * @param methodName the simple name of a method
+     * @param paramTypes the types of the formal parameters, as they are written in source code
+     * @return the matching method, or null if there is none
+     * @throws UserError if {@code typeName} cannot be loaded
+     */
+    @Nullable
+    ExecutableElement getMethod(String typeName, String methodName, String... paramTypes) {
+        String signature = signature(typeName, methodName, paramTypes);
+        if (methodsBySignature.containsKey(signature)) {
+            return methodsBySignature.get(signature);
+        }
+        ExecutableElement result = null;
+        for (ExecutableElement exec : getMethods(typeName, methodName)) {
+            if (parametersMatch(exec.getParameters(), paramTypes)) {
+                result = exec;
+                break;
+            }
+        }
+        methodsBySignature.put(signature, result);
+        return result;
+    }
+
+    /**
+     * Returns a string that identifies a method signature.
+     *
+     * @param typeName the fully-qualified name of a class
+     * @param methodName the simple name of a method
+     * @param paramTypes the types of the formal parameters
+     * @return a string that identifies the signature
+     */
+    private static String signature(String typeName, String methodName, String... paramTypes) {
+        return typeName + "#" + methodName + "(" + String.join(",", paramTypes) + ")";
+    }
+
+    /**
+     * Returns true if the given formal parameters have the given types.
+     *
+     * @param params formal parameters
+     * @param paramTypes the types of the formal parameters, as they are written in source code
+     * @return true if {@code params} have the types {@code paramTypes}
+     */
+    private static boolean parametersMatch(
+            List<? extends VariableElement> params, String[] paramTypes) {
+        if (params.size() != paramTypes.length) {
+            return false;
+        }
+        for (int i = 0; i < paramTypes.length; i++) {
+            TypeMirror tm = TypeAnnotationUtils.unannotatedType(params.get(i).asType());
+            if (!typeMatches(tm, paramTypes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if {@code type} is the type written as {@code name}. Primitive types, type
+     * variables, and classes are compared by name, without converting {@code type} to a string.
+     *
+     * @param type a type
+     * @param name the name of a type as it is written in source code, such as "int", "T[]", "T...",
+     *     or "java.lang.CharSequence"
+     * @return true if {@code name} denotes {@code type}
+     */
+    private static boolean typeMatches(TypeMirror type, String name) {
+        if (name.indexOf('<') != -1) {
+            // Parameterized types are rare here; compare their printed form.
+            return type.toString().equals(name);
+        }
+        if (name.endsWith("...")) {
+            // A varargs parameter has an array type.
+            name = name.substring(0, name.length() - 3) + "[]";
+        }
+        while (name.endsWith("[]")) {
+            if (!(type instanceof ArrayType)) {
+                return false;
+            }
+            type = ((ArrayType) type).getComponentType();
+            name = name.substring(0, name.length() - 2);
+        }
+        switch (type.getKind()) {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case CHAR:
+            case FLOAT:
+            case DOUBLE:
+                return type.getKind().name().equalsIgnoreCase(name);
+            case TYPEVAR:
+                return ((TypeVariable) type).asElement().getSimpleName().contentEquals(name);
+            case DECLARED:
+                DeclaredType declared = (DeclaredType) type;
+                return declared.getTypeArguments().isEmpty()
+                        && ((TypeElement) declared.asElement())
+                                .getQualifiedName()
+                                .contentEquals(name);
+            default:
+                return false;
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package org.checkerframework.javacutil;
 
+import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
 import com.sun.source.util.Trees;
 import com.sun.tools.javac.api.JavacScope;
-import com.sun.tools.javac.code.Kinds;
 import com.sun.tools.javac.code.Kinds.KindSelector;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.ClassSymbol;
@@ -20,17 +20,30 @@ import com.sun.tools.javac.util.List;
 import com.sun.tools.javac.util.Log;
 import com.sun.tools.javac.util.Name;
 import com.sun.tools.javac.util.Names;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeMirror;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
-/** A Utility class to find symbols corresponding to string references. */
+/**
+ * A Utility class to find symbols corresponding to string references.
+ *
+ * <p>Resolving a name requires the javac environment of a scope, which is expensive to compute, so
+ * a Resolver caches both the environments and the results of lookups. Obtain the Resolver of a
+ * compilation with {@link #instance(ProcessingEnvironment)} so that the caches are shared by all of
+ * its clients.
+ */
 // This class reflectively accesses jdk.compiler/com.sun.tools.javac.comp.
 // This is why --add-opens=jdk.compiler/com.sun.tools.javac.comp=ALL-UNNAMED is required when
 // running the Checker Framework.  If this class is re-written, then that --add-opens should be
@@ -41,21 +54,28 @@ public class Resolver {
     private final Trees trees;
     private final Log log;
 
-    private static final Method FIND_METHOD;
-    private static final Method FIND_VAR;
-    private static final Method FIND_IDENT;
-    private static final Method FIND_IDENT_IN_TYPE;
-    private static final Method FIND_IDENT_IN_PACKAGE;
-    private static final Method FIND_TYPE;
+    private static final MethodHandle FIND_METHOD;
+    private static final MethodHandle FIND_VAR;
+    private static final MethodHandle FIND_IDENT;
+    private static final MethodHandle FIND_IDENT_IN_TYPE;
+    private static final MethodHandle FIND_IDENT_IN_PACKAGE;
+    private static final MethodHandle FIND_TYPE;
 
     private static final Class<?> ACCESSERROR;
     // Note that currently access(...) is defined in InvalidSymbolError, a superclass of AccessError
-    private static final Method ACCESSERROR_ACCESS;
+    private static final MethodHandle ACCESSERROR_ACCESS;
+
+    /** Gets the field {@code Resolve.currentResolutionContext}. */
+    private static final MethodHandle GET_CURRENT_RESOLUTION_CONTEXT;
+    /** Sets the field {@code Resolve.currentResolutionContext}. */
+    private static final MethodHandle SET_CURRENT_RESOLUTION_CONTEXT;
 
     static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
         try {
             FIND_METHOD =
-                    Resolve.class.getDeclaredMethod(
+                    unreflect(
+                            lookup,
                             "findMethod",
                             Env.class,
                             Type.class,
@@ -64,36 +84,31 @@ public class Resolver {
                             List.class,
                             boolean.class,
                             boolean.class);
-            FIND_METHOD.setAccessible(true);
-
-            FIND_VAR = Resolve.class.getDeclaredMethod("findVar", Env.class, Name.class);
-            FIND_VAR.setAccessible(true);
-
-            FIND_IDENT =
-                    Resolve.class.getDeclaredMethod(
-                            "findIdent", Env.class, Name.class, KindSelector.class);
-            FIND_IDENT.setAccessible(true);
-
+            FIND_VAR = unreflect(lookup, "findVar", Env.class, Name.class);
+            FIND_IDENT = unreflect(lookup, "findIdent", Env.class, Name.class, KindSelector.class);
             FIND_IDENT_IN_TYPE =
-                    Resolve.class.getDeclaredMethod(
+                    unreflect(
+                            lookup,
                             "findIdentInType",
                             Env.class,
                             Type.class,
                             Name.class,
                             KindSelector.class);
-            FIND_IDENT_IN_TYPE.setAccessible(true);
-
             FIND_IDENT_IN_PACKAGE =
-                    Resolve.class.getDeclaredMethod(
+                    unreflect(
+                            lookup,
                             "findIdentInPackage",
                             Env.class,
                             TypeSymbol.class,
                             Name.class,
                             KindSelector.class);
-            FIND_IDENT_IN_PACKAGE.setAccessible(true);
+            FIND_TYPE = unreflect(lookup, "findType", Env.class, Name.class);
 
-            FIND_TYPE = Resolve.class.getDeclaredMethod("findType", Env.class, Name.class);
-            FIND_TYPE.setAccessible(true);
+            Field currentResolutionContext =
+                    Resolve.class.getDeclaredField("currentResolutionContext");
+            currentResolutionContext.setAccessible(true);
+            GET_CURRENT_RESOLUTION_CONTEXT = lookup.unreflectGetter(currentResolutionContext);
+            SET_CURRENT_RESOLUTION_CONTEXT = lookup.unreflectSetter(currentResolutionContext);
         } catch (Exception e) {
             Error err =
                     new AssertionError(
@@ -104,17 +119,64 @@ public class Resolver {
 
         try {
             ACCESSERROR = Class.forName("com.sun.tools.javac.comp.Resolve$AccessError");
-            ACCESSERROR_ACCESS = ACCESSERROR.getMethod("access", Name.class, TypeSymbol.class);
-            ACCESSERROR_ACCESS.setAccessible(true);
+            Method access = ACCESSERROR.getMethod("access", Name.class, TypeSymbol.class);
+            access.setAccessible(true);
+            ACCESSERROR_ACCESS = lookup.unreflect(access);
         } catch (ClassNotFoundException e) {
             throw new BugInCF("Compiler 'Resolve$AccessError' class could not be retrieved.", e);
-        } catch (NoSuchMethodException e) {
+        } catch (NoSuchMethodException | IllegalAccessException e) {
             throw new BugInCF(
                     "Compiler 'Resolve$AccessError' class doesn't contain required 'access' method",
                     e);
         }
     }
 
+    /**
+     * Returns a method handle for a private method of {@link Resolve}.
+     *
+     * @param lookup the lookup object
+     * @param name the name of the method
+     * @param parameterTypes the parameter types of the method
+     * @return a method handle for the method
+     */
+    private static MethodHandle unreflect(
+            MethodHandles.Lookup lookup, String name, Class<?>... parameterTypes)
+            throws NoSuchMethodException, IllegalAccessException {
+        Method method = Resolve.class.getDeclaredMethod(name, parameterTypes);
+        method.setAccessible(true);
+        return lookup.unreflect(method);
+    }
+
+    /** The key of the Resolver of a compilation in the compilation's {@link Context}. */
+    private static final Context.Key<Resolver> resolverKey = new Context.Key<>();
+
+    /** The size of {@link #envCache} and {@link #resolutionCache}. */
+    private static final int CACHE_SIZE = 300;
+
+    /** Maps a tree to the environment of its scope. */
+    private final Map<Tree, Env<AttrContext>> envCache = CollectionUtils.createLRUCache(CACHE_SIZE);
+
+    /** Maps a lookup to its result, which may be null. */
+    private final Map<ResolutionKey, @Nullable Element> resolutionCache =
+            CollectionUtils.createLRUCache(CACHE_SIZE);
+
+    /**
+     * Returns the Resolver of the compilation that the given processing environment belongs to,
+     * creating it if necessary.
+     *
+     * @param env the processing environment
+     * @return the Resolver of the compilation
+     */
+    public static Resolver instance(ProcessingEnvironment env) {
+        Context context = ((JavacProcessingEnvironment) env).getContext();
+        Resolver instance = context.get(resolverKey);
+        if (instance == null) {
+            instance = new Resolver(env);
+            context.put(resolverKey, instance);
+        }
+        return instance;
+    }
+
     public Resolver(ProcessingEnvironment env) {
         Context context = ((JavacProcessingEnvironment) env).getContext();
         this.resolve = Resolve.instance(context);
@@ -123,6 +185,81 @@ public class Resolver {
         this.log = Log.instance(context);
     }
 
+    /** The kinds of lookups that a Resolver performs. */
+    private enum LookupKind {
+        PACKAGE,
+        FIELD,
+        VARIABLE,
+        CLASS,
+        CLASS_IN_PACKAGE,
+        METHOD
+    }
+
+    /**
+     * A lookup of a name of a given kind, in a scope and possibly in a site such as a type or a
+     * package. The scope is the tree at which a local name is looked up, or the enclosing class for
+     * a member name, whose resolution depends only on the enclosing class and its compilation unit.
+     */
+    private static class ResolutionKey {
+        /** The scope of the lookup. */
+        private final Tree scope;
+        /** The name that is looked up. */
+        private final String name;
+        /** The kind of the lookup. */
+        private final LookupKind kind;
+        /** The type or package in which the name is looked up, or null. */
+        private final @Nullable Object site;
+
+        /**
+         * Creates a ResolutionKey.
+         *
+         * @param scope the scope of the lookup
+         * @param name the name that is looked up
+         * @param kind the kind of the lookup
+         * @param site the type or package in which the name is looked up, or null
+         */
+        ResolutionKey(Tree scope, String name, LookupKind kind, @Nullable Object site) {
+            this.scope = scope;
+            this.name = name;
+            this.kind = kind;
+            this.site = site;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ResolutionKey)) {
+                return false;
+            }
+            ResolutionKey other = (ResolutionKey) o;
+            return scope == other.scope
+                    && kind == other.kind
+                    && name.equals(other.name)
+                    && Objects.equals(site, other.site);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(scope), name, kind, site);
+        }
+    }
+
+    /**
+     * Returns the key of a lookup of a member name, whose scope is the class that encloses {@code
+     * path}.
+     *
+     * @param path the tree path to the local scope
+     * @param name the name that is looked up
+     * @param kind the kind of the lookup
+     * @param site the type or package in which the name is looked up, or null
+     * @return the key of the lookup
+     */
+    private static ResolutionKey memberKey(
+            TreePath path, String name, LookupKind kind, @Nullable Object site) {
+        Tree scope = TreeUtils.enclosingClass(path);
+        return new ResolutionKey(
+                scope != null ? scope : path.getCompilationUnit(), name, kind, site);
+    }
+
     /**
      * Determine the environment for the given path.
      *
@@ -130,6 +267,10 @@ public class Resolver {
      * @return the corresponding attribution environment
      */
     public Env<AttrContext> getEnvForPath(TreePath path) {
+        Env<AttrContext> env = envCache.get(path.getLeaf());
+        if (env != null) {
+            return env;
+        }
         TreePath iter = path;
         JavacScope scope = null;
         while (scope == null && iter != null) {
@@ -143,7 +284,9 @@ public class Resolver {
             }
         }
         if (scope != null) {
-            return scope.getEnv();
+            env = scope.getEnv();
+            envCache.put(path.getLeaf(), env);
+            return env;
         } else {
             throw new BugInCF("Could not determine any possible scope for path: " + path.getLeaf());
         }
@@ -157,21 +300,32 @@ public class Resolver {
      * @return the {@code PackageSymbol} for the package if it is found, {@code null} otherwise
      */
     public PackageSymbol findPackage(String name, TreePath path) {
+        ResolutionKey key = memberKey(path, name, LookupKind.PACKAGE, null);
+        if (resolutionCache.containsKey(key)) {
+            return (PackageSymbol) resolutionCache.get(key);
+        }
         Log.DiagnosticHandler discardDiagnosticHandler = new Log.DiscardDiagnosticHandler(log);
         try {
             Env<AttrContext> env = getEnvForPath(path);
-            Element res =
-                    wrapInvocationOnResolveInstance(
-                            FIND_IDENT, env, names.fromString(name), Kinds.KindSelector.PCK);
+            Element res;
+            try {
+                res =
+                        (Symbol)
+                                FIND_IDENT.invoke(
+                                        resolve, env, names.fromString(name), KindSelector.PCK);
+            } catch (Throwable t) {
+                throw reflectionError(FIND_IDENT, t, env, name);
+            }
             // findIdent will return a PackageSymbol even for a symbol that is not a package,
             // such as a.b.c.MyClass.myStaticField. "exists()" must be called on it to ensure
             // that it exists.
+            PackageSymbol result = null;
             if (res.getKind() == ElementKind.PACKAGE) {
                 PackageSymbol ps = (PackageSymbol) res;
-                return ps.exists() ? ps : null;
-            } else {
-                return null;
+                result = ps.exists() ? ps : null;
             }
+            resolutionCache.put(key, result);
+            return result;
         } finally {
             log.popDiagnosticHandler(discardDiagnosticHandler);
         }
@@ -189,26 +343,43 @@ public class Resolver {
      * @return the element for the field
      */
     public VariableElement findField(String name, TypeMirror type, TreePath path) {
+        ResolutionKey key = memberKey(path, name, LookupKind.FIELD, type);
+        if (resolutionCache.containsKey(key)) {
+            return (VariableElement) resolutionCache.get(key);
+        }
         Log.DiagnosticHandler discardDiagnosticHandler = new Log.DiscardDiagnosticHandler(log);
         try {
             Env<AttrContext> env = getEnvForPath(path);
-            Element res =
-                    wrapInvocationOnResolveInstance(
-                            FIND_IDENT_IN_TYPE,
-                            env,
-                            type,
-                            names.fromString(name),
-                            Kinds.KindSelector.VAR);
+            Element res;
+            try {
+                res =
+                        (Symbol)
+                                FIND_IDENT_IN_TYPE.invoke(
+                                        resolve,
+                                        env,
+                                        (Type) type,
+                                        names.fromString(name),
+                                        KindSelector.VAR);
+            } catch (Throwable t) {
+                throw reflectionError(FIND_IDENT_IN_TYPE, t, env, type, name);
+            }
 
+            VariableElement result;
             if (res.getKind() == ElementKind.FIELD) {
-                return (VariableElement) res;
+                result = (VariableElement) res;
             } else if (res.getKind() == ElementKind.OTHER && ACCESSERROR.isInstance(res)) {
                 // Return the inaccessible field that was found
-                return (VariableElement) wrapInvocation(res, ACCESSERROR_ACCESS, null, null);
+                try {
+                    result = (VariableElement) (Symbol) ACCESSERROR_ACCESS.invoke(res, null, null);
+                } catch (Throwable t) {
+                    throw reflectionError(ACCESSERROR_ACCESS, t, res);
+                }
             } else {
                 // Most likely didn't find the field and the Element is a SymbolNotFoundError
-                return null;
+                result = null;
             }
+            resolutionCache.put(key, result);
+            return result;
         } finally {
             log.popDiagnosticHandler(discardDiagnosticHandler);
         }
@@ -222,18 +393,31 @@ public class Resolver {
      * @return the element for the local variable
      */
     public VariableElement findLocalVariableOrParameterOrField(String name, TreePath path) {
+        // Local variables depend on the position in the method, so the scope is the leaf itself.
+        ResolutionKey key = new ResolutionKey(path.getLeaf(), name, LookupKind.VARIABLE, null);
+        if (resolutionCache.containsKey(key)) {
+            return (VariableElement) resolutionCache.get(key);
+        }
         Log.DiagnosticHandler discardDiagnosticHandler = new Log.DiscardDiagnosticHandler(log);
         try {
             Env<AttrContext> env = getEnvForPath(path);
-            Element res = wrapInvocationOnResolveInstance(FIND_VAR, env, names.fromString(name));
+            Element res;
+            try {
+                res = (Symbol) FIND_VAR.invoke(resolve, env, names.fromString(name));
+            } catch (Throwable t) {
+                throw reflectionError(FIND_VAR, t, env, name);
+            }
+            VariableElement result;
             if (res.getKind() == ElementKind.LOCAL_VARIABLE
                     || res.getKind() == ElementKind.PARAMETER
                     || res.getKind() == ElementKind.FIELD) {
-                return (VariableElement) res;
+                result = (VariableElement) res;
             } else {
                 // Most likely didn't find the variable and the Element is a SymbolNotFoundError
-                return null;
+                result = null;
             }
+            resolutionCache.put(key, result);
+            return result;
         } finally {
             log.popDiagnosticHandler(discardDiagnosticHandler);
         }
@@ -250,10 +434,22 @@ public class Resolver {
      * @return the element for the class
      */
     public Element findClass(String name, TreePath path) {
+        // Local classes depend on the position in the method, so the scope is the leaf itself.
+        ResolutionKey key = new ResolutionKey(path.getLeaf(), name, LookupKind.CLASS, null);
+        if (resolutionCache.containsKey(key)) {
+            return resolutionCache.get(key);
+        }
         Log.DiagnosticHandler discardDiagnosticHandler = new Log.DiscardDiagnosticHandler(log);
         try {
             Env<AttrContext> env = getEnvForPath(path);
-            return wrapInvocationOnResolveInstance(FIND_TYPE, env, names.fromString(name));
+            Element result;
+            try {
+                result = (Symbol) FIND_TYPE.invoke(resolve, env, names.fromString(name));
+            } catch (Throwable t) {
+                throw reflectionError(FIND_TYPE, t, env, name);
+            }
+            resolutionCache.put(key, result);
+            return result;
         } finally {
             log.popDiagnosticHandler(discardDiagnosticHandler);
         }
@@ -268,21 +464,32 @@ public class Resolver {
      * @return the {@code ClassSymbol} for the class if it is found, {@code null} otherwise
      */
     public ClassSymbol findClassInPackage(String name, PackageSymbol pck, TreePath path) {
+        ResolutionKey key = memberKey(path, name, LookupKind.CLASS_IN_PACKAGE, pck);
+        if (resolutionCache.containsKey(key)) {
+            return (ClassSymbol) resolutionCache.get(key);
+        }
         Log.DiagnosticHandler discardDiagnosticHandler = new Log.DiscardDiagnosticHandler(log);
         try {
             Env<AttrContext> env = getEnvForPath(path);
-            Element res =
-                    wrapInvocationOnResolveInstance(
-                            FIND_IDENT_IN_PACKAGE,
-                            env,
-                            pck,
-                            names.fromString(name),
-                            Kinds.KindSelector.TYP);
+            Element res;
+            try {
+                res =
+                        (Symbol)
+                                FIND_IDENT_IN_PACKAGE.invoke(
+                                        resolve,
+                                        env,
+                                        (TypeSymbol) pck,
+                                        names.fromString(name),
+                                        KindSelector.TYP);
+            } catch (Throwable t) {
+                throw reflectionError(FIND_IDENT_IN_PACKAGE, t, env, pck, name);
+            }
+            ClassSymbol result = null;
             if (res.getKind() == ElementKind.CLASS) {
-                return (ClassSymbol) res;
-            } else {
-                return null;
+                result = (ClassSymbol) res;
             }
+            resolutionCache.put(key, result);
+            return result;
         } finally {
             log.popDiagnosticHandler(discardDiagnosticHandler);
         }
@@ -304,6 +511,15 @@ public class Resolver {
             TypeMirror receiverType,
             TreePath path,
             java.util.List<TypeMirror> argumentTypes) {
+        ResolutionKey key =
+                memberKey(
+                        path,
+                        methodName,
+                        LookupKind.METHOD,
+                        Arrays.asList(receiverType, argumentTypes));
+        if (resolutionCache.containsKey(key)) {
+            return resolutionCache.get(key);
+        }
         Log.DiagnosticHandler discardDiagnosticHandler = new Log.DiscardDiagnosticHandler(log);
         try {
             Env<AttrContext> env = getEnvForPath(path);
@@ -322,19 +538,21 @@ public class Resolver {
                 // For some reason we have to set our own method context, which is rather ugly.
                 // TODO: find a nicer way to do this.
                 Object methodContext = buildMethodContext();
-                Object oldContext = getField(resolve, "currentResolutionContext");
-                setField(resolve, "currentResolutionContext", methodContext);
+                Object oldContext = GET_CURRENT_RESOLUTION_CONTEXT.invoke(resolve);
+                SET_CURRENT_RESOLUTION_CONTEXT.invoke(resolve, methodContext);
                 Element result =
-                        wrapInvocationOnResolveInstance(
-                                FIND_METHOD,
-                                env,
-                                site,
-                                name,
-                                argtypes,
-                                typeargtypes,
-                                allowBoxing,
-                                useVarargs);
-                setField(resolve, "currentResolutionContext", oldContext);
+                        (Symbol)
+                                FIND_METHOD.invoke(
+                                        resolve,
+                                        env,
+                                        site,
+                                        name,
+                                        argtypes,
+                                        typeargtypes,
+                                        allowBoxing,
+                                        useVarargs);
+                SET_CURRENT_RESOLUTION_CONTEXT.invoke(resolve, oldContext);
+                resolutionCache.put(key, result);
                 return result;
             } catch (Throwable t) {
                 Error err =
@@ -353,16 +571,22 @@ public class Resolver {
         }
     }
 
+    /** The constructor of {@code Resolve$MethodResolutionContext}, or null if not yet looked up. */
+    private static @Nullable Constructor<?> methodContextConstructor;
+
     /** Build an instance of {@code Resolve$MethodResolutionContext}. */
     protected Object buildMethodContext()
             throws ClassNotFoundException, InstantiationException, IllegalAccessException,
                     InvocationTargetException, NoSuchFieldException {
-        // Class is not accessible, instantiate reflectively.
-        Class<?> methCtxClss =
-                Class.forName("com.sun.tools.javac.comp.Resolve$MethodResolutionContext");
-        Constructor<?> constructor = methCtxClss.getDeclaredConstructors()[0];
-        constructor.setAccessible(true);
-        Object methodContext = constructor.newInstance(resolve);
+        if (methodContextConstructor == null) {
+            // Class is not accessible, instantiate reflectively.
+            Class<?> methCtxClss =
+                    Class.forName("com.sun.tools.javac.comp.Resolve$MethodResolutionContext");
+            Constructor<?> constructor = methCtxClss.getDeclaredConstructors()[0];
+            constructor.setAccessible(true);
+            methodContextConstructor = constructor;
+        }
+        Object methodContext = methodContextConstructor.newInstance(resolve);
         // we need to also initialize the fields attrMode and step
         setField(methodContext, "attrMode", DeferredAttr.AttrMode.CHECK);
         @SuppressWarnings("rawtypes")
@@ -387,21 +611,21 @@ public class Resolver {
         return f.get(receiver);
     }
 
-    private Symbol wrapInvocationOnResolveInstance(Method method, Object... args) {
-        return wrapInvocation(resolve, method, args);
-    }
-
-    private Symbol wrapInvocation(Object receiver, Method method, Object... args) {
-        try {
-            return (Symbol) method.invoke(receiver, args);
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            Error err =
-                    new AssertionError(
-                            String.format(
-                                    "Unexpected Reflection error in wrapInvocation(%s, %s, %s)",
-                                    receiver, method, args));
-            err.initCause(e);
-            throw err;
-        }
+    /**
+     * Returns the error to throw when invoking a javac method through a method handle failed.
+     *
+     * @param method the method handle
+     * @param t the exception thrown by the invocation
+     * @param args the arguments of the invocation
+     * @return the error to throw
+     */
+    private static Error reflectionError(MethodHandle method, Throwable t, Object... args) {
+        Error err =
+                new AssertionError(
+                        String.format(
+                                "Unexpected Reflection error in wrapInvocation(%s, %s)",
+                                method, Arrays.toString(args)));
+        err.initCause(t);
+        return err;
     }
 }
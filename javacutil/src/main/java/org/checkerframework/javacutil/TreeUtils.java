@@ -931,13 +931,8 @@ public final class TreeUtils {
     public static List<ExecutableElement> getMethods(
             String typeName, String methodName, int params, ProcessingEnvironment env) {
         List<ExecutableElement> methods = new ArrayList<>(1);
-        TypeElement typeElt = env.getElementUtils().getTypeElement(typeName);
-        if (typeElt == null) {
-            throw new UserError("Configuration problem! Could not load type: " + typeName);
-        }
-        for (ExecutableElement exec : ElementFilter.methodsIn(typeElt.getEnclosedElements())) {
-            if (exec.getSimpleName().contentEquals(methodName)
-                    && exec.getParameters().size() == params) {
+        for (ExecutableElement exec : MemberIndex.instance(env).getMethods(typeName, methodName)) {
+            if (exec.getParameters().size() == params) {
                 methods.add(exec);
             }
         }
@@ -950,24 +945,10 @@ public final class TreeUtils {
      */
     public static ExecutableElement getMethod(
             String typeName, String methodName, ProcessingEnvironment env, String... paramTypes) {
-        TypeElement typeElt = env.getElementUtils().getTypeElement(typeName);
-        for (ExecutableElement exec : ElementFilter.methodsIn(typeElt.getEnclosedElements())) {
-            if (exec.getSimpleName().contentEquals(methodName)
-                    && exec.getParameters().size() == paramTypes.length) {
-                boolean typesMatch = true;
-                List<? extends VariableElement> params = exec.getParameters();
-                for (int i = 0; i < paramTypes.length; i++) {
-                    VariableElement ve = params.get(i);
-                    TypeMirror tm = TypeAnnotationUtils.unannotatedType(ve.asType());
-                    if (!tm.toString().equals(paramTypes[i])) {
-                        typesMatch = false;
-                        break;
-                    }
-                }
-                if (typesMatch) {
-                    return exec;
-                }
-            }
+        ExecutableElement exec =
+                MemberIndex.instance(env).getMethod(typeName, methodName, paramTypes);
+        if (exec != null) {
+            return exec;
         }
         throw new BugInCF(
                 "TreeUtils.getMethod: found no match for "